@@ -1,601 +1,1118 @@
 package com.yourapp;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.LinkedHashMap;
 import java.util.UUID;
-
+import java.util.stream.Collectors;
+
+import com.yourapp.Cache.ConditionalGet;
+import com.yourapp.Cache.IdentityCache;
+import com.yourapp.Database.CircuitBreaker;
+import com.yourapp.Database.DbUnavailableException;
+import com.yourapp.Database.JsonStream;
+import com.yourapp.Database.MigrationRunner;
+import com.yourapp.Database.PageCursor;
+import com.yourapp.Dto.AdminPasswordResetDto;
+import com.yourapp.Dto.BookSlotsDto;
+import com.yourapp.Dto.ForgotPasswordDto;
 import com.yourapp.Dto.JWTTokenDto;
+import com.yourapp.Dto.Json;
 import com.yourapp.Dto.LoginDto;
+import com.yourapp.Dto.PasswordResetDto;
+import com.yourapp.Dto.ProfileUpdateDto;
+import com.yourapp.Dto.RegisterUserDto;
+import com.yourapp.Dto.SlotCreateDto;
+import com.yourapp.Dto.SlotTemplateDto;
+import com.yourapp.Dto.TransactionCreateDto;
+import com.yourapp.Dto.TransactionDto;
+import com.yourapp.Dto.UserDto;
+import com.yourapp.Security.AccessGuard;
+import com.yourapp.Security.AuthFilter;
 import com.yourapp.Security.JWTTokenProvider;
+import com.yourapp.Security.PasswordHasher;
+import com.yourapp.Security.PasswordMigrationJob;
 import com.yourapp.Security.PasswordSecurity;
+import com.yourapp.Security.Role;
+import com.yourapp.TimeSlots.Slot;
+import com.yourapp.TimeSlots.SlotArchiveJob;
+import com.yourapp.TimeSlots.SlotCalendar;
+import com.yourapp.TimeSlots.SlotChange;
+import com.yourapp.TimeSlots.SlotEvents;
+import com.yourapp.TimeSlots.SlotIndex;
+import com.yourapp.TimeSlots.SlotKeyset;
+import com.yourapp.TimeSlots.SlotStream;
+import com.yourapp.TimeSlots.SlotTemplate;
+import com.yourapp.Transactions.Ledger;
+import com.yourapp.Transactions.LedgerImport;
+import com.yourapp.Transactions.TransactionFilter;
 
 import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.javalin.http.HttpResponseException;
+import io.javalin.http.UploadedFile;
 
 public class App {
 
-    public static void migrateExistingPasswords() {
-        try (Connection conn = Db.getConnection()) {
-            // Get all users with their current passwords
-            String selectSql = "SELECT id, email, password FROM users";
-            String updateSql = "UPDATE users SET password = ? WHERE id = ?";
-            
-            try (PreparedStatement selectStmt = conn.prepareStatement(selectSql);
-                PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                
-                ResultSet rs = selectStmt.executeQuery();
-                int migratedCount = 0;
-                
-                while (rs.next()) {
-                    int userId = rs.getInt("id");
-                    String email = rs.getString("email");
-                    String currentPassword = rs.getString("password");
-                    
-                    // Check if password is already hashed (hashed passwords are much longer)
-                    if (currentPassword.length() < 50) {
-                        // Assume it's plain text, hash it
-                        String hashedPassword = PasswordSecurity.hashPassword(currentPassword);
-                        
-                        updateStmt.setString(1, hashedPassword);
-                        updateStmt.setInt(2, userId);
-                        updateStmt.executeUpdate();
-                        
-                        migratedCount++;
-                        System.out.println("✅ Migrated password for user: " + email);
-                    } else {
-                        System.out.println("⏭️ Password already hashed for user: " + email);
+    /**
+     * Re-hashes a password with the current format/cost after a successful login.
+     * Only replaces the row if the hash is still the one we verified against.
+     */
+    private static void rehashInBackground(PasswordHasher passwordHasher, String email, String password, String oldHash) {
+        passwordHasher.submitBackground(() -> {
+            try {
+                // Hash before borrowing a connection, so the pool isn't held for the whole PBKDF2 run
+                String newHash = PasswordSecurity.hashPassword(password);
+                try (Connection conn = Db.getConnection()) {
+                    String updateSql = "UPDATE users SET password = ? WHERE email = ? AND password = ?";
+                    PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                    updateStmt.setString(1, newHash);
+                    updateStmt.setString(2, email);
+                    updateStmt.setString(3, oldHash);
+                    if (updateStmt.executeUpdate() > 0) {
+                        System.out.println("🔐 Upgraded password hash for user: " + email);
                     }
                 }
-                
-                System.out.println("🎉 Migration complete! Migrated " + migratedCount + " passwords.");
+            } catch (Exception e) {
+                System.err.println("❌ Password rehash failed for " + email + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Debits a priced slot's price inside the caller's booking transaction; slots without a price cost nothing
+     */
+    private static void chargeBooking(Connection conn, int userId, int slotId) throws SQLException, Ledger.InsufficientFundsException {
+        String priceSql = "SELECT price, date, start_time FROM time_slots WHERE id = ?";
+        PreparedStatement priceStmt = conn.prepareStatement(priceSql);
+        priceStmt.setInt(1, slotId);
+        ResultSet priceRs = priceStmt.executeQuery();
+
+        if (priceRs.next()) {
+            BigDecimal price = priceRs.getBigDecimal("price");
+            if (price != null && price.signum() > 0) {
+                Ledger.charge(conn, userId, price, "Rezervacija termina " + priceRs.getDate("date") + " " + priceRs.getString("start_time"));
+            }
+        }
+    }
+
+    /**
+     * Credits back a priced slot's price inside the caller's unbooking transaction
+     */
+    private static void refundBooking(Connection conn, int userId, int slotId) throws SQLException {
+        String priceSql = "SELECT price, date, start_time FROM time_slots WHERE id = ?";
+        PreparedStatement priceStmt = conn.prepareStatement(priceSql);
+        priceStmt.setInt(1, slotId);
+        ResultSet priceRs = priceStmt.executeQuery();
+
+        if (priceRs.next()) {
+            BigDecimal price = priceRs.getBigDecimal("price");
+            if (price != null && price.signum() > 0) {
+                Ledger.credit(conn, userId, price, "Otkazivanje termina " + priceRs.getDate("date") + " " + priceRs.getString("start_time"));
             }
-        } catch (Exception e) {
-            System.err.println("❌ Error during password migration: " + e.getMessage());
-            e.printStackTrace();
         }
     }
 
+    /**
+     * Shared catch-all for handler failures: 503 while the DB breaker is open, 500 otherwise
+     */
+    private static void serverError(Context ctx, Exception e) {
+        if (JsonStream.isAborted(ctx)) {
+            // Part of a streamed list was already sent; the connection is cut, there is no status to set
+            System.err.println("❌ Streamed response aborted: " + e.getMessage());
+            return;
+        }
+        if (e instanceof DbUnavailableException) {
+            long retryAfterMs = ((DbUnavailableException) e).getRetryAfterMs();
+            ctx.header("Retry-After", String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)));
+            ctx.status(503).result("Baza podataka trenutno nije dostupna, pokušajte ponovo");
+            return;
+        }
+        if (e instanceof PasswordHasher.BusyException) {
+            ctx.header("Retry-After", "1");
+            ctx.status(503).result("Server je trenutno preopterećen, pokušajte ponovo");
+            return;
+        }
+        e.printStackTrace();
+        ctx.status(500).result("Server error: " + e.getMessage());
+    }
+
+    /**
+     * ?days= for the "next X days" lists, default 7; answers 400 and returns null when it is not a number in range
+     */
+    private static Integer daysParam(Context ctx) {
+        String daysParam = ctx.queryParam("days");
+        if (daysParam == null) {
+            return 7;
+        }
+        try {
+            int days = Integer.parseInt(daysParam);
+            if (days >= 0 && days <= SlotCalendar.MAX_RANGE_DAYS) {
+                return days;
+            }
+        } catch (NumberFormatException e) {
+            // falls through to the 400 below
+        }
+        ctx.status(400).result("Broj dana mora biti između 0 i " + SlotCalendar.MAX_RANGE_DAYS);
+        return null;
+    }
+
     public static void main(String[] args) {
 
         System.out.println("🚀 Starting Backend...");
 
-        // Run password migration ONCE (comment out after first run)
-        System.out.println("🔄 Starting password migration...");
-        migrateExistingPasswords();
+        // Schema changes ship in the jar (resources/db/migrations), applied before the port opens
+        MigrationRunner migrationRunner = new MigrationRunner();
+        if (Env.getBoolean("MIGRATIONS_ENABLED", true)) {
+            if (Db.awaitAvailable(Env.getLong("DB_STARTUP_WAIT_MS", 60000))) {
+                try {
+                    int applied = migrationRunner.migrate();
+                    System.out.println("🗄️ Schema up to date (" + applied + " migrations applied)");
+                } catch (Exception e) {
+                    // A half-migrated schema is worse than no backend, stop here
+                    throw new IllegalStateException("Schema migration failed: " + e.getMessage(), e);
+                }
+            } else {
+                System.err.println("⚠️ Database not reachable, schema migrations will run on the next start");
+            }
+        }
+
+        // email -> (user id, role), shared by handlers and the role guard
+        IdentityCache identityCache = new IdentityCache();
+
+        // Per-route roles (app.get(path, handler, Role.ADMIN)) are enforced here
+        AccessGuard accessGuard = new AccessGuard(identityCache);
 
         Javalin app = Javalin.create(config -> {
             config.showJavalinBanner = false;
+            // Shared with Json.read/write, so ctx.json gets the same (optionally Afterburner) mapper
+            config.jsonMapper(Json.javalinMapper());
+            config.accessManager(accessGuard);
             config.plugins.enableCors(cors -> {
                 cors.add(it -> {
                     it.anyHost(); // Allow CORS for frontend
+                    it.exposeHeader("ETag");
                 });
             });
         }).start(8080);
 
+        // Failures escaping handlers (e.g. the role revocation lookup) get the same 500/503 mapping
+        app.exception(Exception.class, (e, ctx) -> serverError(ctx, e));
+
+        // Plain-text bodies for halts like the auth filter's 401, same as the handlers' own errors
+        app.exception(HttpResponseException.class, (e, ctx) -> ctx.status(e.getStatus()).result(e.getMessage()));
+
+        // Hash leftover plain-text passwords in the background, resumes from its checkpoint
+        PasswordMigrationJob passwordMigration = new PasswordMigrationJob();
+        System.out.println("🔄 Starting password migration...");
+        passwordMigration.start();
+
+        // Committed slot changes fan out from here (availability index, ...)
+        SlotEvents slotEvents = new SlotEvents();
+
+        // Upcoming slots in memory, /api/time-slots/free is served from here
+        SlotIndex slotIndex = new SlotIndex();
+        slotEvents.subscribe(slotIndex);
+        slotIndex.onDrift(slotEvents::touch);
+        slotIndex.start();
+
+        // Past slots move out of the hot table into time_slots_archive on a schedule
+        SlotArchiveJob slotArchive = new SlotArchiveJob();
+        slotArchive.start();
+
+        // Live slot changes pushed to dashboards (subscribed after the index so events can read it)
+        SlotStream slotStream = new SlotStream(slotIndex);
+        slotEvents.subscribe(slotStream);
+
+        // ETags for the polled slot listings, keyed on the slot change version
+        ConditionalGet freeETags = new ConditionalGet();
+        ConditionalGet myETags = new ConditionalGet();
+        ConditionalGet calendarETags = new ConditionalGet();
+
         // Health endpoint
-        app.get("/health", ctx -> ctx.result("OK"));
+        app.get("/health", ctx -> {
+            CircuitBreaker.State dbState = Db.breakerState();
+            Map<String, Object> health = new LinkedHashMap<>();
+            health.put("status", dbState == CircuitBreaker.State.CLOSED ? "OK" : "DEGRADED");
+            health.put("db", Db.breakerStats());
+            ctx.json(health);
+        });
+
+        // Return pooled connections to MySQL on shutdown
+        Runtime.getRuntime().addShutdownHook(new Thread(Db::shutdown));
 
         // Root endpoint
         app.get("/", ctx -> ctx.result("Pozdrav od @pekaricc!"));
 
-        // Try DB connection
-        try (Connection conn = Db.getConnection()) {
-            System.out.println("✅ Connected to MySQL!");
-        } catch (Exception e) {
-            System.out.println("❌ DB connection failed: " + e.getMessage());
-        }
-
         // JWT provider instance
         JWTTokenProvider tokenProvider = new JWTTokenProvider();
 
+        // Bounded pool for password hashing, keeps login bursts off the request threads' CPU
+        PasswordHasher passwordHasher = new PasswordHasher();
+
+        // One auth pass for every non-public route, attaches the AuthPrincipal
+        AuthFilter authFilter = new AuthFilter(tokenProvider, app.javalinServlet().getMatcher());
+        app.before(authFilter);
+
+        // Runtime metrics for admins (auth timing, caches, DB pool)
+        app.get("/api/admin/metrics", ctx -> {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("auth", authFilter.stats());
+            metrics.put("jwt_cache", tokenProvider.cacheStats());
+            metrics.put("identity_cache", identityCache.stats());
+            metrics.put("password_hasher", passwordHasher.stats());
+            metrics.put("db_pool", Db.poolStats());
+            metrics.put("db_breaker", Db.breakerStats());
+            metrics.put("migrations", migrationRunner.stats());
+            metrics.put("slot_index", slotIndex.stats());
+            metrics.put("slot_archive", slotArchive.stats());
+            Map<String, Object> conditionalGet = new LinkedHashMap<>();
+            conditionalGet.put("free", freeETags.stats());
+            conditionalGet.put("my", myETags.stats());
+            conditionalGet.put("calendar", calendarETags.stats());
+            metrics.put("conditional_get", conditionalGet);
+            metrics.put("slot_stream", slotStream.stats());
+            ctx.json(metrics);
+        }, Role.ADMIN);
+
+        // Password migration progress (Admin only)
+        app.get("/api/admin/password-migration", ctx -> ctx.json(passwordMigration.progress()), Role.ADMIN);
+
+        // Slot index consistency check against SQL for the next X days (Admin only)
+        app.get("/api/admin/slot-index", ctx -> {
+            Integer days = daysParam(ctx);
+            if (days == null) {
+                return;
+            }
+            LocalDate today = LocalDate.now();
+
+            try (Connection conn = Db.getConnection()) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("index", slotIndex.stats());
+                result.put("check", slotIndex.check(conn, today, today.plusDays(days)));
+                ctx.json(result);
+            } catch (Exception e) {
+                serverError(ctx, e);
+            }
+        }, Role.ADMIN);
+
         // TEST Protected endpoint
         app.get("/api/protected/hello", ctx -> {
-            String username = ctx.attribute("username");
+            String username = AuthFilter.principal(ctx).getEmail();
             ctx.result("Hello, " + username + "! You have accessed a protected endpoint.");
         });
 
         // LOGIN endpoint
         app.post("/api/auth/login", ctx -> {
-            LoginDto loginDto = ctx.bodyAsClass(LoginDto.class);
+            LoginDto loginDto;
+            try {
+                loginDto = Json.read(ctx, LoginDto.class);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
+                return;
+            }
 
-            try (Connection conn = Db.getConnection()) {
-                // PREPARED STATEMENT — safe from SQL injection
-                String sql = "SELECT password, role FROM users WHERE email = ?";
-                PreparedStatement stmt = conn.prepareStatement(sql);
-                stmt.setString(1, loginDto.getEmail());
-                ResultSet rs = stmt.executeQuery();
+            try {
+                String storedPassword;
+                String role;
 
-                if (rs.next()) {
-                    String storedPassword = rs.getString("password");
-                    String role = rs.getString("role");
+                // Release the connection before hashing, verification takes far longer than the query
+                try (Connection conn = Db.getConnection()) {
+                    // PREPARED STATEMENT — safe from SQL injection
+                    String sql = "SELECT password, role FROM users WHERE email = ?";
+                    PreparedStatement stmt = conn.prepareStatement(sql);
+                    stmt.setString(1, loginDto.getEmail());
+                    ResultSet rs = stmt.executeQuery();
 
-                    if (PasswordSecurity.verifyPassword(loginDto.getPassword(), storedPassword)) {
-                        String token = tokenProvider.generateToken(loginDto.getEmail(), role);
-                        ctx.json(new JWTTokenDto(token));
-                    } else {
-                        ctx.status(401).result("Nevažeća lozinka");
+                    if (!rs.next()) {
+                        ctx.status(401).result("Korisnik nije pronađen");
+                        return;
                     }
+
+                    storedPassword = rs.getString("password");
+                    role = rs.getString("role");
+                }
+
+                if (passwordHasher.verify(loginDto.getPassword(), storedPassword)) {
+                    // Upgrade legacy or outdated-cost hashes while we still have the plain password
+                    if (PasswordSecurity.needsRehash(storedPassword)) {
+                        rehashInBackground(passwordHasher, loginDto.getEmail(), loginDto.getPassword(), storedPassword);
+                    }
+
+                    String token = tokenProvider.generateToken(loginDto.getEmail(), role);
+                    ctx.json(new JWTTokenDto(token));
                 } else {
-                    ctx.status(401).result("Korisnik nije pronađen");
+                    ctx.status(401).result("Nevažeća lozinka");
                 }
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
-        // Auth for exact /api/time-slots path (POST requests)
-        app.before("/api/time-slots", ctx -> {
-            String header = ctx.header("Authorization");
-
-            if (header == null || !header.startsWith("Bearer ")) {
-                ctx.status(401).result("Missing or invalid Authorization header");
+        // GET my booked time slots, one page at a time (?limit=, ?cursor=). ?from= keeps to bookings on or
+        // after a date (oldest first), ?past=true pages through bookings before today, newest first
+        app.get("/api/time-slots/my", ctx -> {
+            String username = AuthFilter.principal(ctx).getEmail();
+
+            int limit;
+            Object[] cursor;
+            LocalDate from;
+            boolean past = "true".equals(ctx.queryParam("past"));
+            try {
+                limit = PageCursor.pageSize(ctx.queryParam("limit"));
+                cursor = SlotKeyset.decode(ctx.queryParam("cursor"));
+                from = ctx.queryParam("from") != null ? LocalDate.parse(ctx.queryParam("from")) : null;
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
+                return;
+            } catch (DateTimeParseException e) {
+                ctx.status(400).result("Neispravan datum");
                 return;
             }
+            if (past && from != null) {
+                ctx.status(400).result("Parametri 'from' i 'past' se ne mogu kombinirati");
+                return;
+            }
+            LocalDate today = LocalDate.now();
 
-            String token = header.substring(7);
-
-            if (!tokenProvider.validateToken(token)) {
-                ctx.status(401).result("Invalid token");
+            // Unchanged since the client's copy: 304 without touching the DB
+            if (myETags.notModified(ctx, slotEvents.version(), username, limit, ctx.queryParam("cursor"), from, past, past ? today : null)) {
                 return;
             }
 
-            String username = tokenProvider.getUsernameFromJWT(token);
-            ctx.attribute("username", username);
-        });
+            try (Connection conn = Db.getConnection()) {
+                IdentityCache.Identity identity = identityCache.lookup(conn, username);
+                if (identity == null) {
+                    ctx.json(PageCursor.page(new ArrayList<>(), null));
+                    return;
+                }
 
-        app.before("/api/time-slots/*", ctx -> {
-            String header = ctx.header("Authorization");
+                // Past bookings may have been moved to the archive, read both as one history;
+                // the archive only holds past dates, so upcoming pages skip it
+                boolean upcomingOnly = from != null && !from.isBefore(today);
+                List<String> tables = slotArchive.isTableReady() && !upcomingOnly
+                        ? Arrays.asList("time_slots", SlotArchiveJob.ARCHIVE_TABLE)
+                        : Collections.singletonList("time_slots");
+                String orderBy = past ? SlotKeyset.orderByDesc("ts") : SlotKeyset.orderBy("ts");
+
+                List<String> branches = new ArrayList<>();
+                for (String table : tables) {
+                    // Each branch is limited on its own (booked_by, date) index before the merge
+                    branches.add("(SELECT ts.id, ts.date, ts.start_time, ts.end_time, ts.is_booked, ts.booked_by, ts.price " +
+                                "FROM " + table + " ts " +
+                                "WHERE ts.booked_by = ? " +
+                                (from != null ? "AND ts.date >= ? " : "") +
+                                (past ? "AND ts.date < ? " : "") +
+                                (cursor != null ? "AND " + (past ? SlotKeyset.before("ts") : SlotKeyset.after("ts")) + " " : "") +
+                                orderBy + " " +
+                                "LIMIT ?)");
+                }
+                String sql = "SELECT ts.* FROM (" + String.join(" UNION ALL ", branches) + ") ts " +
+                            orderBy + " " +
+                            "LIMIT ?";
 
-            if (header == null || !header.startsWith("Bearer ")) {
-                ctx.status(401).result("Missing or invalid Authorization header");
-                return;
-            }
+                PreparedStatement stmt = conn.prepareStatement(sql);
+                int index = 1;
+                for (int i = 0; i < tables.size(); i++) {
+                    stmt.setInt(index++, identity.getId());
+                    if (from != null) {
+                        stmt.setDate(index++, Date.valueOf(from));
+                    }
+                    if (past) {
+                        stmt.setDate(index++, Date.valueOf(today));
+                    }
+                    if (cursor != null) {
+                        index = SlotKeyset.bind(stmt, index, cursor);
+                    }
+                    stmt.setInt(index++, limit + 1);
+                }
+                // One extra row tells us whether there is a next page
+                stmt.setInt(index, limit + 1);
+                ResultSet rs = stmt.executeQuery();
 
-            String token = header.substring(7);
+                JsonStream.writePage(ctx, rs, limit, (json, row) -> {
+                    Slot slot = Slot.fromRow(row);
+                    json.writeStartObject();
+                    slot.writeFields(json);
+                    json.writeEndObject();
+                    return slot;
+                }, SlotKeyset::encode);
 
-            if (!tokenProvider.validateToken(token)) {
-                ctx.status(401).result("Invalid token");
-                return;
+            } catch (Exception e) {
+                serverError(ctx, e);
             }
-
-            String username = tokenProvider.getUsernameFromJWT(token);
-            ctx.attribute("username", username);
         });
 
-        // GET my booked time slots
-        app.get("/api/time-slots/my", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
-                return;
-            }
+        // GET my booking counts (upcoming / past / total) for the dashboard tiles, without paging through the history
+        app.get("/api/time-slots/my/summary", ctx -> {
+            String username = AuthFilter.principal(ctx).getEmail();
 
             try (Connection conn = Db.getConnection()) {
-                String sql = "SELECT ts.id, ts.date, ts.start_time, ts.end_time, ts.is_booked, ts.booked_by " +
-                            "FROM time_slots ts " +
-                            "JOIN users u ON ts.booked_by = u.id " +
-                            "WHERE u.email = ? " +
-                            "ORDER BY ts.date ASC, ts.start_time ASC";
+                Map<String, Object> summary = new LinkedHashMap<>();
+                IdentityCache.Identity identity = identityCache.lookup(conn, username);
+                int upcoming = 0;
+                int past = 0;
+                if (identity != null) {
+                    List<String> tables = slotArchive.isTableReady()
+                            ? Arrays.asList("time_slots", SlotArchiveJob.ARCHIVE_TABLE)
+                            : Collections.singletonList("time_slots");
+                    for (String table : tables) {
+                        // Counted on the (booked_by, date) index
+                        String sql = "SELECT SUM(date >= CURDATE()) AS upcoming, SUM(date < CURDATE()) AS past " +
+                                    "FROM " + table + " WHERE booked_by = ?";
+                        PreparedStatement stmt = conn.prepareStatement(sql);
+                        stmt.setInt(1, identity.getId());
+                        ResultSet rs = stmt.executeQuery();
+                        if (rs.next()) {
+                            upcoming += rs.getInt("upcoming");
+                            past += rs.getInt("past");
+                        }
+                    }
+                }
+                summary.put("upcoming", upcoming);
+                summary.put("past", past);
+                summary.put("total", upcoming + past);
+                ctx.json(summary);
 
+            } catch (Exception e) {
+                serverError(ctx, e);
+            }
+        });
 
+        // SSE stream of slot changes (token via ?access_token= since EventSource can't send headers)
+        app.sse("/api/time-slots/events", slotStream);
 
-                PreparedStatement stmt = conn.prepareStatement(sql);
-                stmt.setString(1, username);
-                ResultSet rs = stmt.executeQuery();
+        // GET free time slots for next X days
+        app.get("/api/time-slots/free", ctx -> {
+            Integer days = daysParam(ctx);
+            if (days == null) {
+                return;
+            }
+            LocalDate today = LocalDate.now();
+            LocalDate until = today.plusDays(days);
 
-                List<Map<String, Object>> slots = new ArrayList<>();
-
-                while (rs.next()) {
-                    Map<String, Object> slot = new HashMap<>();
-                    slot.put("id", rs.getInt("id"));
-                    slot.put("date", rs.getDate("date").toString());
-                    slot.put("start_time", rs.getString("start_time"));
-                    slot.put("end_time", rs.getString("end_time"));
-                    slot.put("is_booked", rs.getBoolean("is_booked"));
-                    slot.put("booked_by", rs.getObject("booked_by"));
-                    slots.add(slot);
+            if (freeETags.notModified(ctx, slotEvents.version(), today, days)) {
+                return;
+            }
+
+            try {
+                // Served from memory; the DB is only asked before the index is loaded or past its horizon
+                List<Slot> free = slotIndex.free(today, until);
+                if (free == null) {
+                    try (Connection conn = Db.getConnection()) {
+                        free = SlotIndex.querySlots(conn, today, until, true);
+                    }
                 }
 
-                ctx.json(slots);
+                JsonStream.writeArray(ctx, free, (json, slot) -> {
+                    json.writeStartObject();
+                    slot.writeFields(json);
+                    json.writeEndObject();
+                });
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
-        // GET free time slots for next X days
-        app.get("/api/time-slots/free", ctx -> {
-            String daysParam = ctx.queryParam("days");
-            int days = daysParam != null ? Integer.parseInt(daysParam) : 7;
-
-            try (Connection conn = Db.getConnection()) {
-                String sql = "SELECT id, date, start_time, end_time, is_booked, booked_by " +
-                            "FROM time_slots " +
-                            "WHERE is_booked = false " +
-                            "AND date >= CURDATE() " +
-                            "AND date <= DATE_ADD(CURDATE(), INTERVAL ? DAY) " +
-                            "ORDER BY date ASC, start_time ASC";
+        // GET free/booked counts per day (and per hour with ?hours=true) for the admin calendar
+        app.get("/api/time-slots/calendar", ctx -> {
+            LocalDate from;
+            LocalDate to;
+            try {
+                String fromParam = ctx.queryParam("from");
+                String toParam = ctx.queryParam("to");
+                from = fromParam != null ? LocalDate.parse(fromParam) : LocalDate.now();
+                to = toParam != null ? LocalDate.parse(toParam) : from.plusDays(6);
+            } catch (DateTimeParseException e) {
+                ctx.status(400).result("Neispravan datum");
+                return;
+            }
+            if (to.isBefore(from) || from.plusDays(SlotCalendar.MAX_RANGE_DAYS).isBefore(to)) {
+                ctx.status(400).result("Raspon može biti najviše " + SlotCalendar.MAX_RANGE_DAYS + " dana");
+                return;
+            }
+            boolean withHours = "true".equals(ctx.queryParam("hours"));
 
-                PreparedStatement stmt = conn.prepareStatement(sql);
-                stmt.setInt(1, days);
-                ResultSet rs = stmt.executeQuery();
+            if (calendarETags.notModified(ctx, slotEvents.version(), from, to, withHours)) {
+                return;
+            }
 
-                List<Map<String, Object>> slots = new ArrayList<>();
-
-                while (rs.next()) {
-                    Map<String, Object> slot = new HashMap<>();
-                    slot.put("id", rs.getInt("id"));
-                    slot.put("date", rs.getDate("date").toString());
-                    slot.put("start_time", rs.getString("start_time"));
-                    slot.put("end_time", rs.getString("end_time"));
-                    slot.put("is_booked", rs.getBoolean("is_booked"));
-                    slot.put("booked_by", rs.getObject("booked_by"));
-                    slots.add(slot);
+            try {
+                // Counted from the index; the DB groups the rows itself outside its window
+                SlotCalendar calendar = slotIndex.calendar(from, to);
+                if (calendar == null) {
+                    try (Connection conn = Db.getConnection()) {
+                        // Past months live partly or wholly in the archive table
+                        calendar = SlotCalendar.query(conn, from, to, slotArchive.isTableReady());
+                    }
                 }
 
-                ctx.json(slots);
+                ctx.json(calendar.toMap(withHours));
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
         // POST Add new time slot (Admin)
         app.post("/api/time-slots", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+            SlotCreateDto command;
+            try {
+                command = Json.read(ctx, SlotCreateDto.class);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
+            LocalDate date = command.getDate();
+            LocalTime start_time = command.getStartTime();
+            LocalTime end_time = command.getEndTime();
+            BigDecimal price = command.getPrice();
 
             try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
-                    return;
+                String insertSql = "INSERT INTO time_slots (date, start_time, end_time, is_booked, booked_by, price) " +
+                                "VALUES (?, ?, ?, false, NULL, ?)";
+
+                PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+                insertStmt.setString(1, date.toString());
+                insertStmt.setString(2, start_time.toString());
+                insertStmt.setString(3, end_time.toString());
+                insertStmt.setBigDecimal(4, price);
+                insertStmt.executeUpdate();
+
+                ResultSet keys = insertStmt.getGeneratedKeys();
+                if (keys.next()) {
+                    slotEvents.publish(SlotChange.created(new Slot(keys.getInt(1), date, start_time, end_time, false, null, price)));
                 }
 
-                // Read body
-                Map<String, Object> body = ctx.bodyAsClass(Map.class);
-                String date = (String) body.get("date");
-                String start_time = (String) body.get("start_time");
-                String end_time = (String) body.get("end_time");
+                ctx.result("Time Slot uspješno dodan");
 
+            } catch (Exception e) {
+                serverError(ctx, e);
+            }
+        }, Role.ADMIN);
+
+        // POST Add recurring time slots in one transaction (Admin)
+        int bulkMaxSlots = Env.getInt("SLOT_BULK_MAX", 5000);
+        app.post("/api/time-slots/bulk", ctx -> {
+            SlotTemplate template;
+            try {
+                template = Json.read(ctx, SlotTemplateDto.class).getTemplate();
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
+                return;
+            }
 
-                String insertSql = "INSERT INTO time_slots (date, start_time, end_time, is_booked, booked_by) " +
-                                "VALUES (?, ?, ?, false, NULL)";
+            List<Slot> requested = template.expand();
+            if (requested.size() > bulkMaxSlots) {
+                ctx.status(400).result("Previše termina u jednom zahtjevu (" + requested.size() + ", najviše " + bulkMaxSlots + ")");
+                return;
+            }
 
-                PreparedStatement insertStmt = conn.prepareStatement(insertSql);
-                insertStmt.setString(1, date);
-                insertStmt.setString(2, start_time);
-                insertStmt.setString(3, end_time);
-                insertStmt.executeUpdate();
+            try (Connection conn = Db.getConnection()) {
+                List<Slot> created = new ArrayList<>();
+                conn.setAutoCommit(false);
+                try {
+                    // Slots that already exist (same date and start) are skipped, so a template can be re-run
+                    String existingSql = "SELECT date, start_time FROM time_slots WHERE date >= ? AND date <= ?";
+                    PreparedStatement existingStmt = conn.prepareStatement(existingSql);
+                    existingStmt.setDate(1, Date.valueOf(template.getFrom()));
+                    existingStmt.setDate(2, Date.valueOf(template.getTo()));
+                    ResultSet existingRs = existingStmt.executeQuery();
+
+                    Set<String> existing = new HashSet<>();
+                    while (existingRs.next()) {
+                        existing.add(existingRs.getDate("date") + " " + LocalTime.parse(existingRs.getString("start_time")));
+                    }
 
-                ctx.result("Time Slot uspješno dodan");
+                    List<Slot> toInsert = new ArrayList<>();
+                    for (Slot slot : requested) {
+                        if (existing.add(slot.getDate() + " " + slot.getStartTime())) {
+                            toInsert.add(slot);
+                        }
+                    }
+
+                    // rewriteBatchedStatements turns each batch into one multi-row INSERT
+                    String insertSql = "INSERT INTO time_slots (date, start_time, end_time, is_booked, booked_by, price) " +
+                                    "VALUES (?, ?, ?, false, NULL, ?)";
+                    PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+                    for (int i = 0; i < toInsert.size(); i += 500) {
+                        List<Slot> chunk = toInsert.subList(i, Math.min(i + 500, toInsert.size()));
+                        for (Slot slot : chunk) {
+                            insertStmt.setString(1, slot.getDate().toString());
+                            insertStmt.setString(2, slot.getStartTime().toString());
+                            insertStmt.setString(3, slot.getEndTime().toString());
+                            insertStmt.setBigDecimal(4, slot.getPrice());
+                            insertStmt.addBatch();
+                        }
+                        insertStmt.executeBatch();
+
+                        ResultSet keys = insertStmt.getGeneratedKeys();
+                        for (Slot slot : chunk) {
+                            if (keys.next()) {
+                                created.add(new Slot(keys.getInt(1), slot.getDate(), slot.getStartTime(), slot.getEndTime(), false, null, slot.getPrice()));
+                            }
+                        }
+                    }
+
+                    conn.commit();
+
+                    Map<String, Object> summary = new LinkedHashMap<>();
+                    summary.put("requested", requested.size());
+                    summary.put("created", toInsert.size());
+                    summary.put("skipped", requested.size() - toInsert.size());
+                    ctx.json(summary);
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+
+                for (Slot slot : created) {
+                    slotEvents.publish(SlotChange.created(slot));
+                }
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
         // POST Book time slot (User books a slot)
         app.post("/api/time-slots/book/{id}", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
-                return;
-            }
+            String username = AuthFilter.principal(ctx).getEmail();
 
             int slotId = Integer.parseInt(ctx.pathParam("id"));
 
             try (Connection conn = Db.getConnection()) {
                 // Get user ID
-                String userIdSql = "SELECT id FROM users WHERE email = ?";
-                PreparedStatement userStmt = conn.prepareStatement(userIdSql);
-                userStmt.setString(1, username);
-                ResultSet userRs = userStmt.executeQuery();
+                IdentityCache.Identity identity = identityCache.lookup(conn, username);
 
-                if (!userRs.next()) {
+                if (identity == null) {
                     ctx.status(500).result("Korisnik nije pronađen");
                     return;
                 }
 
-                int userId = userRs.getInt("id");
+                int userId = identity.getId();
 
-                // Try to book slot
                 String updateSql = "UPDATE time_slots SET is_booked = true, booked_by = ? WHERE id = ? AND is_booked = false";
                 PreparedStatement updateStmt = conn.prepareStatement(updateSql);
                 updateStmt.setInt(1, userId);
                 updateStmt.setInt(2, slotId);
-                int updatedRows = updateStmt.executeUpdate();
 
-                if (updatedRows > 0) {
-                    ctx.result("Time Slot je uspješno rezerviran");
-                } else {
-                    ctx.status(400).result("Time Slot je već rezerviran ili ne postoji");
+                // Book and charge in one short transaction. The price is read from the row inside it
+                // (chargeBooking), never from the per-node slot index, which may lag a price change.
+                conn.setAutoCommit(false);
+                try {
+                    if (updateStmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        ctx.status(400).result("Time Slot je već rezerviran ili ne postoji");
+                        return;
+                    }
+
+                    chargeBooking(conn, userId, slotId);
+                    conn.commit();
+                } catch (Ledger.InsufficientFundsException e) {
+                    conn.rollback();
+                    ctx.status(400).result(e.getMessage());
+                    return;
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
                 }
 
+                slotEvents.publish(SlotChange.booked(slotId, userId));
+                ctx.result("Time Slot je uspješno rezerviran");
+
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
-        // POST Unbook time slot (User unbooks their own slot)
-        app.post("/api/time-slots/unbook/{id}", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+        // POST Book several slots at once, all or nothing (body: {"slot_ids": [..]})
+        int bookMaxSlots = Env.getInt("BOOK_MAX_SLOTS", 20);
+        app.post("/api/time-slots/book", ctx -> {
+            String username = AuthFilter.principal(ctx).getEmail();
+
+            // Sorted and de-duplicated: rows are locked in id order, so two overlapping requests can't deadlock
+            TreeSet<Integer> slotIds;
+            try {
+                slotIds = Json.read(ctx, BookSlotsDto.class).getSlotIds();
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
+                return;
+            }
+            if (slotIds.size() > bookMaxSlots) {
+                ctx.status(400).result("Najviše " + bookMaxSlots + " termina u jednoj rezervaciji");
                 return;
             }
-
-            int slotId = Integer.parseInt(ctx.pathParam("id"));
 
             try (Connection conn = Db.getConnection()) {
-                // Get user ID
-                String userIdSql = "SELECT id FROM users WHERE email = ?";
-                PreparedStatement userStmt = conn.prepareStatement(userIdSql);
-                userStmt.setString(1, username);
-                ResultSet userRs = userStmt.executeQuery();
+                IdentityCache.Identity identity = identityCache.lookup(conn, username);
 
-                if (!userRs.next()) {
+                if (identity == null) {
                     ctx.status(500).result("Korisnik nije pronađen");
                     return;
                 }
 
-                int userId = userRs.getInt("id");
+                int userId = identity.getId();
+                String placeholders = String.join(", ", Collections.nCopies(slotIds.size(), "?"));
 
-                // Check if the slot is booked by this user
-                String checkSql = "SELECT booked_by FROM time_slots WHERE id = ? AND is_booked = true";
-                PreparedStatement checkStmt = conn.prepareStatement(checkSql);
-                checkStmt.setInt(1, slotId);
-                ResultSet checkRs = checkStmt.executeQuery();
+                Map<Integer, String> outcomes = new LinkedHashMap<>();
+                boolean allAvailable = true;
 
-                if (!checkRs.next()) {
-                    ctx.status(400).result("Time Slot nije rezerviran ili ne postoji");
+                conn.setAutoCommit(false);
+                try {
+                    String lockSql = "SELECT id, is_booked, price, date, start_time FROM time_slots " +
+                                    "WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE";
+                    PreparedStatement lockStmt = conn.prepareStatement(lockSql);
+                    int index = 1;
+                    for (int slotId : slotIds) {
+                        lockStmt.setInt(index++, slotId);
+                    }
+                    ResultSet lockRs = lockStmt.executeQuery();
+
+                    Map<Integer, String> charges = new LinkedHashMap<>();
+                    Map<Integer, BigDecimal> prices = new HashMap<>();
+                    for (int slotId : slotIds) {
+                        outcomes.put(slotId, "not_found");
+                    }
+                    while (lockRs.next()) {
+                        int slotId = lockRs.getInt("id");
+                        if (lockRs.getBoolean("is_booked")) {
+                            outcomes.put(slotId, "already_booked");
+                        } else {
+                            outcomes.put(slotId, "booked");
+                            BigDecimal price = lockRs.getBigDecimal("price");
+                            if (price != null && price.signum() > 0) {
+                                prices.put(slotId, price);
+                                charges.put(slotId, "Rezervacija termina " + lockRs.getDate("date") + " " + lockRs.getString("start_time"));
+                            }
+                        }
+                    }
+                    allAvailable = !outcomes.containsValue("not_found") && !outcomes.containsValue("already_booked");
+
+                    if (allAvailable) {
+                        String updateSql = "UPDATE time_slots SET is_booked = true, booked_by = ? " +
+                                        "WHERE id IN (" + placeholders + ") AND is_booked = false";
+                        PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                        index = 1;
+                        updateStmt.setInt(index++, userId);
+                        for (int slotId : slotIds) {
+                            updateStmt.setInt(index++, slotId);
+                        }
+                        updateStmt.executeUpdate();
+
+                        for (Map.Entry<Integer, String> charge : charges.entrySet()) {
+                            Ledger.charge(conn, userId, prices.get(charge.getKey()), charge.getValue());
+                        }
+                        conn.commit();
+                    } else {
+                        conn.rollback();
+                    }
+                } catch (Ledger.InsufficientFundsException e) {
+                    conn.rollback();
+                    ctx.status(400).result(e.getMessage());
                     return;
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
                 }
 
-                int bookedBy = checkRs.getInt("booked_by");
-                if (bookedBy != userId) {
-                    ctx.status(403).result("Možete otkazati samo svoje rezervacije.");
-                    return;
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (Map.Entry<Integer, String> outcome : outcomes.entrySet()) {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("slot_id", outcome.getKey());
+                    // Nothing was booked if any slot failed
+                    result.put("status", allAvailable || !"booked".equals(outcome.getValue()) ? outcome.getValue() : "available");
+                    results.add(result);
                 }
 
-                // Unbook the slot
-                String updateSql = "UPDATE time_slots SET is_booked = false, booked_by = NULL WHERE id = ?";
-                PreparedStatement updateStmt = conn.prepareStatement(updateSql);
-                updateStmt.setInt(1, slotId);
-                int updatedRows = updateStmt.executeUpdate();
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("booked", allAvailable);
+                response.put("results", results);
 
-                if (updatedRows > 0) {
-                    ctx.result("Time Slot uspješno otkazan");
+                if (allAvailable) {
+                    for (int slotId : slotIds) {
+                        slotEvents.publish(SlotChange.booked(slotId, userId));
+                    }
                 } else {
-                    ctx.status(500).result("Neuspjeh u otkazivanju time slot-a");
+                    ctx.status(400);
                 }
+                ctx.json(response);
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
-        // DELETE Remove time slot (Admin only)
-        app.delete("/api/time-slots/{id}", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
-                return;
-            }
+        // POST Unbook time slot (User unbooks their own slot)
+        app.post("/api/time-slots/unbook/{id}", ctx -> {
+            String username = AuthFilter.principal(ctx).getEmail();
 
             int slotId = Integer.parseInt(ctx.pathParam("id"));
 
             try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
+                // Get user ID
+                IdentityCache.Identity identity = identityCache.lookup(conn, username);
+
+                if (identity == null) {
+                    ctx.status(500).result("Korisnik nije pronađen");
                     return;
                 }
 
-                // Check if slot exists and whether it's booked
-                String checkSql = "SELECT is_booked FROM time_slots WHERE id = ?";
-                PreparedStatement checkStmt = conn.prepareStatement(checkSql);
-                checkStmt.setInt(1, slotId);
-                ResultSet checkRs = checkStmt.executeQuery();
+                int userId = identity.getId();
+
+                // Only succeeds for the caller's own booking
+                String updateSql = "UPDATE time_slots SET is_booked = false, booked_by = NULL WHERE id = ? AND is_booked = true AND booked_by = ?";
+                PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                updateStmt.setInt(1, slotId);
+                updateStmt.setInt(2, userId);
+                int updatedRows;
+
+                // Unbook and refund in one short transaction, the price comes from the row (see book)
+                conn.setAutoCommit(false);
+                try {
+                    updatedRows = updateStmt.executeUpdate();
+                    if (updatedRows > 0) {
+                        refundBooking(conn, userId, slotId);
+                    }
+                    conn.commit();
+                } catch (Exception e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
 
-                if (!checkRs.next()) {
-                    ctx.status(404).result("Time slot nije pronađen");
+                if (updatedRows == 0) {
+                    // Nothing matched, work out why (only on this path)
+                    String checkSql = "SELECT booked_by FROM time_slots WHERE id = ? AND is_booked = true";
+                    PreparedStatement checkStmt = conn.prepareStatement(checkSql);
+                    checkStmt.setInt(1, slotId);
+                    ResultSet checkRs = checkStmt.executeQuery();
+
+                    if (!checkRs.next()) {
+                        ctx.status(400).result("Time Slot nije rezerviran ili ne postoji");
+                    } else if (checkRs.getInt("booked_by") != userId) {
+                        ctx.status(403).result("Možete otkazati samo svoje rezervacije.");
+                    } else {
+                        ctx.status(500).result("Neuspjeh u otkazivanju time slot-a");
+                    }
                     return;
                 }
 
-                boolean isBooked = checkRs.getBoolean("is_booked");
+                slotEvents.publish(SlotChange.freed(slotId));
+                ctx.result("Time Slot uspješno otkazan");
+
+            } catch (Exception e) {
+                serverError(ctx, e);
+            }
+        });
 
-                // Delete the time slot
-                String deleteSql = "DELETE FROM time_slots WHERE id = ?";
+        // DELETE Remove time slot (Admin only)
+        app.delete("/api/time-slots/{id}", ctx -> {
+            int slotId = Integer.parseInt(ctx.pathParam("id"));
+
+            try (Connection conn = Db.getConnection()) {
+                // One statement for everything except a booked priced slot, which is refunded first
+                String deleteSql = "DELETE FROM time_slots WHERE id = ? AND (is_booked = false OR price IS NULL)";
                 PreparedStatement deleteStmt = conn.prepareStatement(deleteSql);
                 deleteStmt.setInt(1, slotId);
                 int deletedRows = deleteStmt.executeUpdate();
 
-                if (deletedRows > 0) {
-                    ctx.result("Time Slot uspješno obrisan");
-                } else {
-                    ctx.status(404).result("Time Slot nije pronađen");
+                if (deletedRows == 0) {
+                    conn.setAutoCommit(false);
+                    try {
+                        String checkSql = "SELECT booked_by FROM time_slots WHERE id = ? FOR UPDATE";
+                        PreparedStatement checkStmt = conn.prepareStatement(checkSql);
+                        checkStmt.setInt(1, slotId);
+                        ResultSet checkRs = checkStmt.executeQuery();
+
+                        if (!checkRs.next()) {
+                            conn.rollback();
+                            ctx.status(404).result("Time slot nije pronađen");
+                            return;
+                        }
+
+                        Integer bookedBy = (Integer) checkRs.getObject("booked_by");
+                        if (bookedBy != null) {
+                            refundBooking(conn, bookedBy, slotId);
+                        }
+
+                        PreparedStatement forceDeleteStmt = conn.prepareStatement("DELETE FROM time_slots WHERE id = ?");
+                        forceDeleteStmt.setInt(1, slotId);
+                        forceDeleteStmt.executeUpdate();
+                        conn.commit();
+                    } catch (Exception e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
                 }
 
+                slotEvents.publish(SlotChange.deleted(slotId));
+                ctx.result("Time Slot uspješno obrisan");
+
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
-        // GET all time slots for next X days (Admin only - shows both free and booked)
+        // GET all time slots for next X days, one page at a time (Admin only - shows both free and booked)
         app.get("/api/time-slots/all", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+            int limit;
+            Object[] cursor;
+            // ?date= narrows the list to the one day opened in the calendar
+            LocalDate date;
+            try {
+                limit = PageCursor.pageSize(ctx.queryParam("limit"));
+                cursor = SlotKeyset.decode(ctx.queryParam("cursor"));
+                date = ctx.queryParam("date") != null ? LocalDate.parse(ctx.queryParam("date")) : null;
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
+                return;
+            } catch (DateTimeParseException e) {
+                ctx.status(400).result("Neispravan datum");
                 return;
             }
 
-            try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
-                    return;
-                }
+            Integer days = daysParam(ctx);
+            if (days == null) {
+                return;
+            }
 
-                String daysParam = ctx.queryParam("days");
-                int days = daysParam != null ? Integer.parseInt(daysParam) : 7;
+            try (Connection conn = Db.getConnection()) {
 
                 // Updated SQL with LEFT JOIN to get user information
-                String sql = "SELECT ts.id, ts.date, ts.start_time, ts.end_time, ts.is_booked, ts.booked_by, " +
+                // A past day opened in the calendar may already be in the archive table
+                boolean withArchive = date != null && slotArchive.isTableReady();
+                String slotColumns = "id, date, start_time, end_time, is_booked, booked_by, price";
+                String sql = "SELECT ts.id, ts.date, ts.start_time, ts.end_time, ts.is_booked, ts.booked_by, ts.price, " +
                             "u.first_name, u.last_name, u.email " +
-                            "FROM time_slots ts " +
+                            (withArchive
+                                ? "FROM (SELECT " + slotColumns + " FROM time_slots WHERE date = ? " +
+                                  "UNION ALL SELECT " + slotColumns + " FROM " + SlotArchiveJob.ARCHIVE_TABLE + " WHERE date = ?) ts "
+                                : "FROM time_slots ts ") +
                             "LEFT JOIN users u ON ts.booked_by = u.id " +
-                            "WHERE ts.date >= CURDATE() " +
-                            "AND ts.date <= DATE_ADD(CURDATE(), INTERVAL ? DAY) " +
-                            "ORDER BY ts.date ASC, ts.start_time ASC";
+                            (date != null
+                                ? "WHERE ts.date = ? "
+                                : "WHERE ts.date >= CURDATE() AND ts.date <= DATE_ADD(CURDATE(), INTERVAL ? DAY) ") +
+                            (cursor != null ? "AND " + SlotKeyset.after("ts") + " " : "") +
+                            SlotKeyset.orderBy("ts") + " " +
+                            "LIMIT ?";
 
                 PreparedStatement stmt = conn.prepareStatement(sql);
-                stmt.setInt(1, days);
+                stmt.setFetchSize(JsonStream.FETCH_SIZE);
+                int index = 1;
+                if (withArchive) {
+                    stmt.setDate(index++, Date.valueOf(date));
+                    stmt.setDate(index++, Date.valueOf(date));
+                }
+                if (date != null) {
+                    stmt.setDate(index++, Date.valueOf(date));
+                } else {
+                    stmt.setInt(index++, days);
+                }
+                if (cursor != null) {
+                    index = SlotKeyset.bind(stmt, index, cursor);
+                }
+                // One extra row tells us whether there is a next page
+                stmt.setInt(index, limit + 1);
                 ResultSet rs = stmt.executeQuery();
 
-                List<Map<String, Object>> slots = new ArrayList<>();
+                JsonStream.writePage(ctx, rs, limit, (json, row) -> {
+                    Slot slot = Slot.fromRow(row);
+                    json.writeStartObject();
+                    slot.writeFields(json);
 
-                while (rs.next()) {
-                    Map<String, Object> slot = new HashMap<>();
-                    slot.put("id", rs.getInt("id"));
-                    slot.put("date", rs.getDate("date").toString());
-                    slot.put("start_time", rs.getString("start_time"));
-                    slot.put("end_time", rs.getString("end_time"));
-                    slot.put("is_booked", rs.getBoolean("is_booked"));
-                    slot.put("booked_by", rs.getObject("booked_by"));
-                    
                     // Add user information if slot is booked
-                    if (rs.getObject("booked_by") != null) {
-                        Map<String, Object> bookedByUser = new HashMap<>();
-                        bookedByUser.put("first_name", rs.getString("first_name"));
-                        bookedByUser.put("last_name", rs.getString("last_name"));
-                        bookedByUser.put("email", rs.getString("email"));
-                        slot.put("booked_by_user", bookedByUser);
+                    if (slot.getBookedBy() != null) {
+                        json.writeObjectFieldStart("booked_by_user");
+                        json.writeStringField("first_name", row.getString("first_name"));
+                        json.writeStringField("last_name", row.getString("last_name"));
+                        json.writeStringField("email", row.getString("email"));
+                        json.writeEndObject();
                     } else {
-                        slot.put("booked_by_user", null);
+                        json.writeNullField("booked_by_user");
                     }
-                    
-                    slots.add(slot);
-                }
 
-                ctx.json(slots);
+                    json.writeEndObject();
+                    return slot;
+                }, SlotKeyset::encode);
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
-        // Auth middleware for users endpoints
-        app.before("/api/users/*", ctx -> {
-            String header = ctx.header("Authorization");
-
-            if (header == null || !header.startsWith("Bearer ")) {
-                ctx.status(401).result("Missing or invalid Authorization header");
-                return;
-            }
-
-            String token = header.substring(7);
-
-            if (!tokenProvider.validateToken(token)) {
-                ctx.status(401).result("Invalid token");
-                return;
-            }
-
-            String username = tokenProvider.getUsernameFromJWT(token);
-            ctx.attribute("username", username);
-        });
 
         // GET all users (Admin only)
         app.get("/api/users/all", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
-                return;
-            }
-
             try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
-                    return;
-                }
-
                 // Get all users with all available columns
                 String sql = "SELECT id, first_name, last_name, email, phone, balance, role " +
                             "FROM users " +
                             "ORDER BY id DESC";
 
                 PreparedStatement stmt = conn.prepareStatement(sql);
+                stmt.setFetchSize(JsonStream.FETCH_SIZE);
                 ResultSet rs = stmt.executeQuery();
 
-                List<Map<String, Object>> users = new ArrayList<>();
-
-                while (rs.next()) {
-                    Map<String, Object> user = new HashMap<>();
-                    user.put("id", rs.getInt("id"));
-                    user.put("first_name", rs.getString("first_name"));
-                    user.put("last_name", rs.getString("last_name"));
-                    user.put("email", rs.getString("email"));
-                    user.put("phone", rs.getString("phone"));
-                    user.put("balance", rs.getBigDecimal("balance"));
-                    user.put("role", rs.getString("role"));
-                    user.put("created_at", null); // Set to null since column doesn't exist
-                    
-                    users.add(user);
-                }
-
-                ctx.json(users);
+                // Written row by row, the user list is never held in memory
+                JsonStream.writeArray(ctx, rs, (json, row) -> {
+                    json.writeStartObject();
+                    json.writeNumberField("id", row.getInt("id"));
+                    json.writeStringField("first_name", row.getString("first_name"));
+                    json.writeStringField("last_name", row.getString("last_name"));
+                    json.writeStringField("email", row.getString("email"));
+                    json.writeStringField("phone", row.getString("phone"));
+                    BigDecimal balance = row.getBigDecimal("balance");
+                    if (balance != null) {
+                        json.writeNumberField("balance", balance);
+                    } else {
+                        json.writeNullField("balance");
+                    }
+                    json.writeStringField("role", row.getString("role"));
+                    json.writeNullField("created_at"); // Null since column doesn't exist
+                    json.writeEndObject();
+                });
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
         // GET user profile (for current logged-in user)
         app.get("/api/users/profile", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
-                return;
-            }
+            String username = AuthFilter.principal(ctx).getEmail();
 
             try (Connection conn = Db.getConnection()) {
                 // Get user profile with all available columns
@@ -608,48 +1125,33 @@ public class App {
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
-                    Map<String, Object> user = new HashMap<>();
-                    user.put("id", rs.getInt("id"));
-                    user.put("first_name", rs.getString("first_name"));
-                    user.put("last_name", rs.getString("last_name"));
-                    user.put("email", rs.getString("email"));
-                    user.put("phone", rs.getString("phone"));
-                    user.put("balance", rs.getBigDecimal("balance"));
-                    user.put("role", rs.getString("role"));
-                    user.put("created_at", null); // Set to null since column doesn't exist
-                    
-                    ctx.json(user);
+                    Json.write(ctx, UserDto.fromRow(rs));
                 } else {
                     ctx.status(404).result("Korisnik nije pronađen");
                 }
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
         // PUT update user profile (for current logged-in user)
         app.put("/api/users/profile", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+            String username = AuthFilter.principal(ctx).getEmail();
+
+            ProfileUpdateDto command;
+            try {
+                command = Json.read(ctx, ProfileUpdateDto.class);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
+            String firstName = command.getFirstName();
+            String lastName = command.getLastName();
+            String newEmail = command.getEmail();
+            String phone = command.getPhone();
 
             try (Connection conn = Db.getConnection()) {
-                // Read body
-                Map<String, Object> body = ctx.bodyAsClass(Map.class);
-                String firstName = (String) body.get("first_name");
-                String lastName = (String) body.get("last_name");
-                String newEmail = (String) body.get("email");
-                String phone = (String) body.get("phone");
-
-                if (firstName == null || lastName == null || newEmail == null) {
-                    ctx.status(400).result("Nedostaju potrebna polja");
-                    return;
-                }
-
                 // Check if new email is already taken by another user
                 if (!newEmail.equals(username)) {
                     String checkEmailSql = "SELECT id FROM users WHERE email = ? AND email != ?";
@@ -676,315 +1178,157 @@ public class App {
                 int updatedRows = updateStmt.executeUpdate();
 
                 if (updatedRows > 0) {
+                    identityCache.invalidate(username);
+                    identityCache.invalidate(newEmail);
                     ctx.result("Uspješno ažuriran račun");
                 } else {
                     ctx.status(404).result("Korisnik ne postoji");
                 }
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
         // POST admin register new user (Admin only)
         app.post("/api/users/admin/register", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+            RegisterUserDto command;
+            try {
+                command = Json.read(ctx, RegisterUserDto.class);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
+            String firstName = command.getFirstName();
+            String lastName = command.getLastName();
+            String email = command.getEmail();
+            String password = command.getPassword();
+            String phone = command.getPhone();
+            String role = command.getRole();
+
+            try {
+                // Hash before borrowing a connection, PBKDF2 takes far longer than the queries
+                String hashedPassword = passwordHasher.hash(password);
+
+                try (Connection conn = Db.getConnection()) {
+                    // Check if email already exists
+                    String checkEmailSql = "SELECT id FROM users WHERE email = ?";
+                    PreparedStatement checkStmt = conn.prepareStatement(checkEmailSql);
+                    checkStmt.setString(1, email.toLowerCase());
+                    ResultSet checkRs = checkStmt.executeQuery();
 
-            try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
-                    return;
-                }
-
-                // Read body
-                Map<String, Object> body = ctx.bodyAsClass(Map.class);
-                String firstName = (String) body.get("first_name");
-                String lastName = (String) body.get("last_name");
-                String email = (String) body.get("email");
-                String password = (String) body.get("password");
-                String phone = (String) body.get("phone");
-                String role = (String) body.get("role");
-                Object balanceObj = body.get("balance");
-
-                if (firstName == null || lastName == null || email == null || password == null || role == null) {
-                    ctx.status(400).result("Nedostaju potrebna polja");
-                    return;
-                }
-
-                // Validate role
-                if (!"USER".equals(role) && !"ADMIN".equals(role)) {
-                    ctx.status(400).result("Nevažeća uloga. Mora biti USER ili ADMIN");
-                    return;
-                }
-
-                // Parse balance
-                double balance = 0.0;
-                if (balanceObj != null) {
-                    try {
-                        balance = Double.parseDouble(balanceObj.toString());
-                    } catch (NumberFormatException e) {
-                        ctx.status(400).result("Nevažeći format balance-a");
+                    if (checkRs.next()) {
+                        ctx.status(400).result("Email već postoji");
                         return;
                     }
-                }
-
-                // Check if email already exists
-                String checkEmailSql = "SELECT id FROM users WHERE email = ?";
-                PreparedStatement checkStmt = conn.prepareStatement(checkEmailSql);
-                checkStmt.setString(1, email.toLowerCase());
-                ResultSet checkRs = checkStmt.executeQuery();
-
-                if (checkRs.next()) {
-                    ctx.status(400).result("Email već postoji");
-                    return;
-                }
-
-                String hashedPassword = PasswordSecurity.hashPassword(password);
-
-                // Insert new user
-                String insertSql = "INSERT INTO users (first_name, last_name, email, password, phone, role, balance) VALUES (?, ?, ?, ?, ?, ?, ?)";
-                PreparedStatement insertStmt = conn.prepareStatement(insertSql);
-                insertStmt.setString(1, firstName);
-                insertStmt.setString(2, lastName);
-                insertStmt.setString(3, email.toLowerCase());
-                insertStmt.setString(4, hashedPassword);
-                insertStmt.setString(5, phone);
-                insertStmt.setString(6, role);
-                insertStmt.setDouble(7, balance);
-
-                int insertedRows = insertStmt.executeUpdate();
 
-                if (insertedRows > 0) {
-                    ctx.result("Korisnik je uspješno registriran");
+                    // Insert new user
+                    String insertSql = "INSERT INTO users (first_name, last_name, email, password, phone, role, balance) VALUES (?, ?, ?, ?, ?, ?, ?)";
+                    PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                    insertStmt.setString(1, firstName);
+                    insertStmt.setString(2, lastName);
+                    insertStmt.setString(3, email.toLowerCase());
+                    insertStmt.setString(4, hashedPassword);
+                    insertStmt.setString(5, phone);
+                    insertStmt.setString(6, role);
+                    insertStmt.setBigDecimal(7, command.getBalance());
+
+                    int insertedRows = insertStmt.executeUpdate();
+
+                    if (insertedRows > 0) {
+                        identityCache.invalidate(email.toLowerCase());
+                        ctx.result("Korisnik je uspješno registriran");
                     
-                    // Send welcome email with error handling
-                    try {
-                        EmailService.sendWelcomeEmail(email, firstName, lastName);
-                        System.out.println("✅ Email dobrodošlice poslat na: " + email);
-                    } catch (Exception emailError) {
-                        System.err.println("❌ Email dobrodošlice nije poslat na" + email + ": " + emailError.getMessage());
-                        // Don't fail the registration if email fails - user is already created
+                        // Send welcome email with error handling
+                        try {
+                            EmailService.sendWelcomeEmail(email, firstName, lastName);
+                            System.out.println("✅ Email dobrodošlice poslat na: " + email);
+                        } catch (Exception emailError) {
+                            System.err.println("❌ Email dobrodošlice nije poslat na" + email + ": " + emailError.getMessage());
+                            // Don't fail the registration if email fails - user is already created
+                        }
+                    } else {
+                        ctx.status(500).result("Registracija korisnika nije uspjela");
                     }
-                } else {
-                    ctx.status(500).result("Registracija korisnika nije uspjela");
                 }
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
         // PUT admin reset user password (Admin only)
         app.put("/api/users/admin/reset-password", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+            AdminPasswordResetDto command;
+            try {
+                command = Json.read(ctx, AdminPasswordResetDto.class);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
+            int userId = command.getUserId();
+            String newPassword = command.getNewPassword();
+
+            try {
+                // Hash before borrowing a connection, PBKDF2 takes far longer than the queries
+                String hashedPassword = passwordHasher.hash(newPassword);
+
+                try (Connection conn = Db.getConnection()) {
+                    // Check if user exists
+                    String checkUserSql = "SELECT id FROM users WHERE id = ?";
+                    PreparedStatement checkStmt = conn.prepareStatement(checkUserSql);
+                    checkStmt.setInt(1, userId);
+                    ResultSet checkRs = checkStmt.executeQuery();
 
-            try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
-                    return;
-                }
-
-                // Read body
-                Map<String, Object> body = ctx.bodyAsClass(Map.class);
-                Object userIdObj = body.get("user_id");
-                String newPassword = (String) body.get("new_password");
-
-                if (userIdObj == null || newPassword == null) {
-                    ctx.status(400).result("Nedostaju potrebna polja");
-                    return;
-                }
-
-                int userId;
-                try {
-                    userId = Integer.parseInt(userIdObj.toString());
-                } catch (NumberFormatException e) {
-                    ctx.status(400).result("Nevažeći format korisničkog ID-a");
-                    return;
-                }
-
-                // Validate password length
-                if (newPassword.length() < 6) {
-                    ctx.status(400).result("Lozinka mora imati najmanje 6 znakova");
-                    return;
-                }
-
-                // Check if user exists
-                String checkUserSql = "SELECT id FROM users WHERE id = ?";
-                PreparedStatement checkStmt = conn.prepareStatement(checkUserSql);
-                checkStmt.setInt(1, userId);
-                ResultSet checkRs = checkStmt.executeQuery();
-
-                if (!checkRs.next()) {
-                    ctx.status(404).result("Korisnik nije pronađen");
-                    return;
-                }
-
-                String hashedPassword = PasswordSecurity.hashPassword(newPassword);
+                    if (!checkRs.next()) {
+                        ctx.status(404).result("Korisnik nije pronađen");
+                        return;
+                    }
 
-                // Update user password
-                String updateSql = "UPDATE users SET password = ? WHERE id = ?";
-                PreparedStatement updateStmt = conn.prepareStatement(updateSql);
-                updateStmt.setString(1, hashedPassword);
-                updateStmt.setInt(2, userId);
+                    // Update user password
+                    String updateSql = "UPDATE users SET password = ? WHERE id = ?";
+                    PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                    updateStmt.setString(1, hashedPassword);
+                    updateStmt.setInt(2, userId);
                 
-                int updatedRows = updateStmt.executeUpdate();
+                    int updatedRows = updateStmt.executeUpdate();
 
-                if (updatedRows > 0) {
-                    ctx.result("Resetiranje lozinke uspješno");
-                } else {
-                    ctx.status(500).result("Nije uspjelo resetiranje lozinke");
+                    if (updatedRows > 0) {
+                        identityCache.invalidateUser(userId);
+                        ctx.result("Resetiranje lozinke uspješno");
+                    } else {
+                        ctx.status(500).result("Nije uspjelo resetiranje lozinke");
+                    }
                 }
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
-        // Auth middleware for transaction endpoints
-        app.before("/api/transactions/*", ctx -> {
-            String header = ctx.header("Authorization");
-
-            if (header == null || !header.startsWith("Bearer ")) {
-                ctx.status(401).result("Missing or invalid Authorization header");
-                return;
-            }
-
-            String token = header.substring(7);
-
-            if (!tokenProvider.validateToken(token)) {
-                ctx.status(401).result("Invalid token");
-                return;
-            }
-
-            String username = tokenProvider.getUsernameFromJWT(token);
-            ctx.attribute("username", username);
-        });
 
         // POST create transaction (Admin only)
         app.post("/api/transactions/create", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+            TransactionCreateDto command;
+            try {
+                command = Json.read(ctx, TransactionCreateDto.class);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
 
             try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
-                    return;
-                }
-
-                // Read body
-                Map<String, Object> body = ctx.bodyAsClass(Map.class);
-                Object userIdObj = body.get("user_id");
-                String transactionType = (String) body.get("transaction_type");
-                Object amountObj = body.get("amount");
-                String description = (String) body.get("description");
-
-                if (userIdObj == null || transactionType == null || amountObj == null || description == null) {
-                    ctx.status(400).result("Nedostaju potrebna polja");
-                    return;
-                }
-
-                // Parse values
-                int userId;
-                double amount;
+                // One short transaction: a relative balance update plus the ledger row, no read-modify-write
+                conn.setAutoCommit(false);
                 try {
-                    userId = Integer.parseInt(userIdObj.toString());
-                    amount = Double.parseDouble(amountObj.toString());
-                } catch (NumberFormatException e) {
-                    ctx.status(400).result("Neispravan format broja");
-                    return;
-                }
-
-                // Validate transaction type
-                if (!"ADD".equals(transactionType) && !"SUBTRACT".equals(transactionType)) {
-                    ctx.status(400).result("Neispravna vrsta transakcije. Mora biti ADD ili SUBTRACT");
-                    return;
-                }
-
-                // Validate amount
-                if (amount <= 0) {
-                    ctx.status(400).result("Iznos mora biti pozitivan");
-                    return;
-                }
-
-                // Get current user balance
-                String balanceSql = "SELECT balance FROM users WHERE id = ?";
-                PreparedStatement balanceStmt = conn.prepareStatement(balanceSql);
-                balanceStmt.setInt(1, userId);
-                ResultSet balanceRs = balanceStmt.executeQuery();
-
-                if (!balanceRs.next()) {
-                    ctx.status(404).result("Korisnik nije pronađen");
-                    return;
-                }
-
-                double currentBalance = balanceRs.getDouble("balance");
-                double newBalance;
-
-                if ("ADD".equals(transactionType)) {
-                    newBalance = currentBalance + amount;
-                } else { // SUBTRACT
-                    newBalance = currentBalance - amount;
-                    // Allow negative balances, but warn if it goes below 0
-                    if (newBalance < 0) {
-                        // You can uncomment this line if you want to prevent negative balances
-                        // ctx.status(400).result("Insufficient balance for this transaction");
-                        // return;
+                    boolean posted = Ledger.post(conn, command.getUserId(), command.getTransactionType(),
+                            command.getAmount(), command.getDescription());
+                    if (!posted) {
+                        conn.rollback();
+                        ctx.status(404).result("Korisnik nije pronađen");
+                        return;
                     }
-                }
 
-                // Start transaction
-                conn.setAutoCommit(false);
-
-                try {
-                    // Insert transaction record
-                    String insertTransactionSql = "INSERT INTO transactions (user_id, amount, transaction_type, description) VALUES (?, ?, ?, ?)";
-                    PreparedStatement insertTransactionStmt = conn.prepareStatement(insertTransactionSql);
-                    insertTransactionStmt.setInt(1, userId);
-                    insertTransactionStmt.setDouble(2, amount);
-                    insertTransactionStmt.setString(3, transactionType);
-                    insertTransactionStmt.setString(4, description);
-                    insertTransactionStmt.executeUpdate();
-
-                    // Update user balance
-                    String updateBalanceSql = "UPDATE users SET balance = ? WHERE id = ?";
-                    PreparedStatement updateBalanceStmt = conn.prepareStatement(updateBalanceSql);
-                    updateBalanceStmt.setDouble(1, newBalance);
-                    updateBalanceStmt.setInt(2, userId);
-                    updateBalanceStmt.executeUpdate();
-
-                    // Commit transaction
                     conn.commit();
                     ctx.result("Transakcija je uspješno obrađena");
 
@@ -997,89 +1341,166 @@ public class App {
                 }
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
-
-        // GET all transactions (Admin only)
-        app.get("/api/transactions/all", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+        }, Role.ADMIN);
+
+        // POST many transactions at once from a JSON array or a CSV upload (Admin only)
+        int bulkMaxTransactions = Env.getInt("TRANSACTION_BULK_MAX", 10000);
+        int bulkTransactionChunk = Env.getInt("TRANSACTION_BULK_CHUNK", 500);
+        app.post("/api/transactions/bulk", ctx -> {
+            List<LedgerImport.Row> rows;
+            try {
+                // Parsed row by row off the request (or the multipart temp file); the rows are kept for validation
+                String contentType = ctx.contentType() == null ? "" : ctx.contentType().toLowerCase();
+                if (contentType.startsWith("multipart/form-data")) {
+                    UploadedFile file = ctx.uploadedFile("file");
+                    if (file == null) {
+                        ctx.status(400).result("Nedostaje datoteka 'file'");
+                        return;
+                    }
+                    try (InputStream in = file.content()) {
+                        rows = file.filename().toLowerCase().endsWith(".json")
+                                ? LedgerImport.readJson(in, bulkMaxTransactions)
+                                : LedgerImport.readCsv(new InputStreamReader(in, StandardCharsets.UTF_8), bulkMaxTransactions);
+                    }
+                } else if (contentType.startsWith("text/csv") || contentType.startsWith("text/plain")) {
+                    rows = LedgerImport.readCsv(new InputStreamReader(ctx.bodyInputStream(), StandardCharsets.UTF_8), bulkMaxTransactions);
+                } else {
+                    rows = LedgerImport.readJson(ctx.bodyInputStream(), bulkMaxTransactions);
+                }
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
+                return;
+            }
+            if (rows.isEmpty()) {
+                ctx.status(400).result("Nema transakcija za uvoz");
                 return;
             }
 
             try (Connection conn = Db.getConnection()) {
-                // Check if user is ADMIN
-                String roleSql = "SELECT role FROM users WHERE email = ?";
-                PreparedStatement roleStmt = conn.prepareStatement(roleSql);
-                roleStmt.setString(1, username);
-                ResultSet roleRs = roleStmt.executeQuery();
-
-                if (!roleRs.next() || !"ADMIN".equals(roleRs.getString("role"))) {
-                    ctx.status(403).result("Forbidden: Admins only");
+                LedgerImport.checkUsers(conn, rows, bulkTransactionChunk);
+
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("rows", rows.size());
+                if (LedgerImport.count(rows, LedgerImport.INVALID) > 0) {
+                    // All or nothing at validation time, the admin fixes the file and sends it again
+                    summary.put("invalid", LedgerImport.count(rows, LedgerImport.INVALID));
+                    summary.put("applied", 0);
+                    summary.put("results", rows.stream().map(LedgerImport.Row::toMap).collect(Collectors.toList()));
+                    ctx.status(400).json(summary);
                     return;
                 }
 
-                // Get all transactions with user info
-                String sql = "SELECT t.id, t.user_id, t.amount, t.transaction_type, t.description, " +
+                // One short transaction per chunk, so a large import never holds many row locks for long
+                String failure = null;
+                for (int i = 0; i < rows.size() && failure == null; i += bulkTransactionChunk) {
+                    List<LedgerImport.Row> chunk = rows.subList(i, Math.min(i + bulkTransactionChunk, rows.size()));
+                    conn.setAutoCommit(false);
+                    try {
+                        Ledger.postAll(conn, chunk.stream().map(LedgerImport.Row::getPosting).collect(Collectors.toList()));
+                        conn.commit();
+                        chunk.forEach(row -> row.setStatus(LedgerImport.APPLIED));
+                    } catch (Exception e) {
+                        conn.rollback();
+                        if (e instanceof DbUnavailableException && i == 0) {
+                            // Nothing applied yet: the usual 503 with Retry-After
+                            throw e;
+                        }
+                        // Driver/SQL text stays in the log, the client gets a fixed message
+                        System.err.println("❌ Bulk transaction import failed at row " + (i + 1) + ": " + e.getMessage());
+                        failure = "Upis nije uspio od retka " + (i + 1) + ", ponovo pošaljite redove koji nisu upisani";
+                        chunk.forEach(row -> row.setStatus(LedgerImport.FAILED));
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+                for (LedgerImport.Row row : rows) {
+                    if (LedgerImport.VALID.equals(row.getStatus())) {
+                        row.setStatus(LedgerImport.NOT_APPLIED);
+                    }
+                }
+
+                summary.put("applied", LedgerImport.count(rows, LedgerImport.APPLIED));
+                summary.put("error", failure);
+                summary.put("results", rows.stream().map(LedgerImport.Row::toMap).collect(Collectors.toList()));
+                // Chunks before a failure stay committed: 207 (Multi-Status) with "error" set, and the
+                // per-row results say which rows went in and which to resend; 500 stays for real crashes
+                ctx.status(failure == null ? 200 : 207).json(summary);
+
+            } catch (Exception e) {
+                serverError(ctx, e);
+            }
+        }, Role.ADMIN);
+
+        // GET the ledger one page at a time, newest first, with optional filters (Admin only)
+        app.get("/api/transactions/all", ctx -> {
+            TransactionFilter filter;
+            try {
+                filter = TransactionFilter.fromQuery(ctx, null);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
+                return;
+            }
+
+            try (Connection conn = Db.getConnection()) {
+                // Transactions with user info
+                String sql = "SELECT t.id, t.user_id, t.amount, t.transaction_type, t.description, t.created_at, " +
                             "u.first_name, u.last_name, u.email " +
                             "FROM transactions t " +
                             "JOIN users u ON t.user_id = u.id " +
-                            "ORDER BY t.id DESC";
+                            filter.where("t") +
+                            TransactionFilter.orderBy("t") +
+                            "LIMIT ?";
 
                 PreparedStatement stmt = conn.prepareStatement(sql);
+                stmt.setFetchSize(JsonStream.FETCH_SIZE);
+                filter.bind(stmt);
                 ResultSet rs = stmt.executeQuery();
 
-                List<Map<String, Object>> transactions = new ArrayList<>();
-
-                while (rs.next()) {
-                    Map<String, Object> transaction = new HashMap<>();
-                    transaction.put("id", rs.getInt("id"));
-                    transaction.put("user_id", rs.getInt("user_id"));
-                    transaction.put("amount", rs.getDouble("amount"));
-                    transaction.put("transaction_type", rs.getString("transaction_type"));
-                    transaction.put("description", rs.getString("description"));
-                    transaction.put("user_name", rs.getString("first_name") + " " + rs.getString("last_name"));
-                    transaction.put("user_email", rs.getString("email"));
-                    
-                    transactions.add(transaction);
-                }
-
-                ctx.json(transactions);
+                JsonStream.writePage(ctx, rs, filter.getLimit(), (json, row) -> {
+                    TransactionDto transaction = TransactionDto.fromRow(row);
+                    json.writeStartObject();
+                    transaction.writeFields(json);
+                    json.writeStringField("user_name", row.getString("first_name") + " " + row.getString("last_name"));
+                    json.writeStringField("user_email", row.getString("email"));
+                    json.writeEndObject();
+                    return transaction;
+                }, TransactionFilter::encode);
 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
-        });
+        }, Role.ADMIN);
 
-        // GET transactions for specific user
+        // GET transactions for specific user, one page at a time (same filters as /all)
         app.get("/api/transactions/user/{userId}", ctx -> {
-            String username = ctx.attribute("username");
-            if (username == null) {
-                ctx.status(401).result("Unauthorized");
+            String username = AuthFilter.principal(ctx).getEmail();
+
+            int requestedUserId;
+            TransactionFilter filter;
+            try {
+                requestedUserId = Integer.parseInt(ctx.pathParam("userId"));
+                filter = TransactionFilter.fromQuery(ctx, requestedUserId);
+            } catch (NumberFormatException e) {
+                ctx.status(400).result("Nevažeći format korisničkog ID-a");
+                return;
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
 
             try (Connection conn = Db.getConnection()) {
                 // Check if user is ADMIN or requesting their own transactions
-                String userIdStr = ctx.pathParam("userId");
-                int requestedUserId = Integer.parseInt(userIdStr);
+                IdentityCache.Identity identity = identityCache.lookup(conn, username);
 
-                String userCheckSql = "SELECT id, role FROM users WHERE email = ?";
-                PreparedStatement userCheckStmt = conn.prepareStatement(userCheckSql);
-                userCheckStmt.setString(1, username);
-                ResultSet userCheckRs = userCheckStmt.executeQuery();
-
-                if (!userCheckRs.next()) {
+                if (identity == null) {
                     ctx.status(404).result("Korisnik nije pronađen");
                     return;
                 }
 
-                int currentUserId = userCheckRs.getInt("id");
-                String currentUserRole = userCheckRs.getString("role");
+                int currentUserId = identity.getId();
+                String currentUserRole = identity.getRole();
 
                 // Only allow if admin or user requesting their own transactions
                 if (!"ADMIN".equals(currentUserRole) && currentUserId != requestedUserId) {
@@ -1087,46 +1508,38 @@ public class App {
                     return;
                 }
 
-                // Get transactions for the user
-                String sql = "SELECT id, user_id, amount, transaction_type, description " +
+                // Get transactions for the user, served by idx_transactions_user_created
+                String sql = "SELECT id, user_id, amount, transaction_type, description, created_at " +
                             "FROM transactions " +
-                            "WHERE user_id = ? " +
-                            "ORDER BY id DESC";
+                            filter.where("") +
+                            TransactionFilter.orderBy("") +
+                            "LIMIT ?";
 
                 PreparedStatement stmt = conn.prepareStatement(sql);
-                stmt.setInt(1, requestedUserId);
+                stmt.setFetchSize(JsonStream.FETCH_SIZE);
+                filter.bind(stmt);
                 ResultSet rs = stmt.executeQuery();
 
-                List<Map<String, Object>> transactions = new ArrayList<>();
-
-                while (rs.next()) {
-                    Map<String, Object> transaction = new HashMap<>();
-                    transaction.put("id", rs.getInt("id"));
-                    transaction.put("user_id", rs.getInt("user_id"));
-                    transaction.put("amount", rs.getDouble("amount"));
-                    transaction.put("transaction_type", rs.getString("transaction_type"));
-                    transaction.put("description", rs.getString("description"));
-                    
-                    transactions.add(transaction);
-                }
-
-                ctx.json(transactions);
+                JsonStream.writePage(ctx, rs, filter.getLimit(), (json, row) -> {
+                    TransactionDto transaction = TransactionDto.fromRow(row);
+                    json.writeStartObject();
+                    transaction.writeFields(json);
+                    json.writeEndObject();
+                    return transaction;
+                }, TransactionFilter::encode);
 
-            } catch (NumberFormatException e) {
-                ctx.status(400).result("Nevažeći format korisničkog ID-a");
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
         // POST /api/auth/forgot-password
         app.post("/api/auth/forgot-password", ctx -> {
-            Map<String, Object> body = ctx.bodyAsClass(Map.class);
-            String email = (String) body.get("email");
-            
-            if (email == null || email.trim().isEmpty()) {
-                ctx.status(400).result("Email je obavezan");
+            String email;
+            try {
+                email = Json.read(ctx, ForgotPasswordDto.class).getEmail();
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
             
@@ -1176,73 +1589,72 @@ public class App {
                 ctx.result("Ako ova email adresa postoji, dobit ćete link za resetovanje šifre.");
                 
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
         // POST /api/auth/reset-password
         app.post("/api/auth/reset-password", ctx -> {
-            Map<String, Object> body = ctx.bodyAsClass(Map.class);
-            String token = (String) body.get("token");
-            String newPassword = (String) body.get("newPassword");
-            
-            if (token == null || newPassword == null) {
-                ctx.status(400).result("Token i nova lozinka su potrebni");
-                return;
-            }
-            
-            if (newPassword.length() < 6) {
-                ctx.status(400).result("Lozinka mora imati najmanje 6 znakova");
+            PasswordResetDto command;
+            try {
+                command = Json.read(ctx, PasswordResetDto.class);
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).result(e.getMessage());
                 return;
             }
+            String token = command.getToken();
+            String newPassword = command.getNewPassword();
             
-            try (Connection conn = Db.getConnection()) {
-                // Find valid token
-                String tokenSql = "SELECT user_id FROM password_reset_tokens WHERE token = ? AND expires_at > NOW() AND used = FALSE";
-                PreparedStatement tokenStmt = conn.prepareStatement(tokenSql);
-                tokenStmt.setString(1, token);
-                ResultSet tokenRs = tokenStmt.executeQuery();
-                
-                if (tokenRs.next()) {
-                    int userId = tokenRs.getInt("user_id");
-                    
-                    // Start transaction
+            try {
+                // Hash before borrowing a connection, PBKDF2 takes far longer than the queries
+                String hashedPassword = passwordHasher.hash(newPassword);
+
+                try (Connection conn = Db.getConnection()) {
+                    // Token check and update in one short transaction; the row lock stops a token being used twice
                     conn.setAutoCommit(false);
-                    
                     try {
+                        // Find valid token
+                        String tokenSql = "SELECT user_id FROM password_reset_tokens WHERE token = ? AND expires_at > NOW() AND used = FALSE FOR UPDATE";
+                        PreparedStatement tokenStmt = conn.prepareStatement(tokenSql);
+                        tokenStmt.setString(1, token);
+                        ResultSet tokenRs = tokenStmt.executeQuery();
+
+                        if (!tokenRs.next()) {
+                            conn.rollback();
+                            ctx.status(400).result("Nevažeći ili istekli token za resetovanje šifre");
+                            return;
+                        }
+                        int userId = tokenRs.getInt("user_id");
+
                         // Update password
                         String updatePasswordSql = "UPDATE users SET password = ? WHERE id = ?";
                         PreparedStatement updatePasswordStmt = conn.prepareStatement(updatePasswordSql);
-                        updatePasswordStmt.setString(1, PasswordSecurity.hashPassword(newPassword)); // In production, hash this!
+                        updatePasswordStmt.setString(1, hashedPassword);
                         updatePasswordStmt.setInt(2, userId);
                         updatePasswordStmt.executeUpdate();
-                        
+
                         // Mark token as used
                         String markUsedSql = "UPDATE password_reset_tokens SET used = TRUE WHERE token = ?";
                         PreparedStatement markUsedStmt = conn.prepareStatement(markUsedSql);
                         markUsedStmt.setString(1, token);
                         markUsedStmt.executeUpdate();
-                        
+
                         // Commit transaction
                         conn.commit();
-                        
+                        identityCache.invalidateUser(userId);
+
                         ctx.result("Šifra je uspješno promjenjena!");
-                        
+
                     } catch (Exception e) {
                         conn.rollback();
                         throw e;
                     } finally {
                         conn.setAutoCommit(true);
                     }
-                    
-                } else {
-                    ctx.status(400).result("Nevažeći ili istekli token za resetovanje šifre");
                 }
-                
+
             } catch (Exception e) {
-                e.printStackTrace();
-                ctx.status(500).result("Server error: " + e.getMessage());
+                serverError(ctx, e);
             }
         });
 
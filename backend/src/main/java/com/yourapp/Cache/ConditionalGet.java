@@ -0,0 +1,117 @@
+package com.yourapp.Cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.yourapp.Env;
+
+import io.javalin.http.Context;
+
+/**
+ * Weak ETags for responses that only change when a version counter moves.
+ *
+ * The tag is W/"<epoch>-<version>-<scope hash>": the random per-process epoch keeps
+ * tags from different nodes (or before a restart) from ever matching, and the scope
+ * (a 64-bit SHA-256 prefix) covers whatever else the body depends on (user, query
+ * parameters, today's date). A matching If-None-Match is answered with 304 before
+ * any DB or serialization work.
+ *
+ * Single node only: the version is this process's SlotEvents counter, so a change
+ * committed on another node doesn't move it and this node would keep answering 304
+ * until its reconcile notices. With more than one backend behind the load balancer,
+ * set ETAGS_ENABLED=false; responses are then always built in full.
+ */
+public class ConditionalGet {
+
+    private static final String EPOCH = Long.toHexString(new SecureRandom().nextLong() & Long.MAX_VALUE);
+
+    private static final boolean ENABLED = Env.getBoolean("ETAGS_ENABLED", true);
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    /**
+     * Sets ETag and Cache-Control on the response.
+     *
+     * @return true if the client's copy is current; a 304 has been set and the handler should return
+     */
+    public boolean notModified(Context ctx, long version, Object... scope) {
+        if (!ENABLED) {
+            return false;
+        }
+        requests.incrementAndGet();
+
+        String etag = "W/\"" + EPOCH + "-" + version + "-" + scopeHash(scope) + "\"";
+        ctx.header("ETag", etag);
+        // Browsers keep the body but must revalidate every time
+        ctx.header("Cache-Control", "private, no-cache");
+
+        if (matches(ctx.header("If-None-Match"), etag)) {
+            notModified.incrementAndGet();
+            ctx.status(304);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * First 64 bits of SHA-256 over the scope values, each length-prefixed so ("ab", "c") and ("a", "bc") differ
+     */
+    static String scopeHash(Object... scope) {
+        StringBuilder key = new StringBuilder();
+        for (Object value : scope) {
+            if (value == null) {
+                key.append('-');
+            } else {
+                String text = String.valueOf(value);
+                key.append(text.length()).append(':').append(text);
+            }
+            key.append(';');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    public Map<String, Object> stats() {
+        long total = requests.get();
+        long hits = notModified.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ENABLED);
+        stats.put("requests", total);
+        stats.put("not_modified", hits);
+        stats.put("hit_ratio", total == 0 ? 0.0 : Math.round(hits * 1000.0 / total) / 1000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,85 @@
+package com.yourapp.Cache;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import com.yourapp.Db;
+import com.yourapp.Env;
+
+/**
+ * Maps a JWT subject (email) to the user's id and current role.
+ *
+ * Entries live for IDENTITY_CACHE_TTL_MS at most; handlers that change emails,
+ * roles or credentials invalidate them explicitly so the next lookup hits the DB.
+ */
+public class IdentityCache {
+
+    public static class Identity {
+        private final int id;
+        private final String role;
+
+        public Identity(int id, String role) {
+            this.id = id;
+            this.role = role;
+        }
+
+        public int getId() { return id; }
+
+        public String getRole() { return role; }
+    }
+
+    private final TtlCache<String, Identity> identities = new TtlCache<>(
+            Env.getInt("IDENTITY_CACHE_SIZE", 5000),
+            Env.getLong("IDENTITY_CACHE_TTL_MS", 30000));
+
+    /**
+     * @return the identity for this email, or null if no such user exists
+     */
+    public Identity lookup(Connection conn, String email) throws SQLException {
+        Identity identity = identities.get(email);
+        if (identity != null) {
+            return identity;
+        }
+
+        PreparedStatement stmt = conn.prepareStatement("SELECT id, role FROM users WHERE email = ?");
+        stmt.setString(1, email);
+        ResultSet rs = stmt.executeQuery();
+        if (!rs.next()) {
+            return null;
+        }
+
+        identity = new Identity(rs.getInt("id"), rs.getString("role"));
+        identities.put(email, identity);
+        return identity;
+    }
+
+    /**
+     * Same as lookup(conn, email) but only borrows a connection on a cache miss
+     */
+    public Identity lookup(String email) throws SQLException {
+        Identity identity = identities.get(email);
+        if (identity != null) {
+            return identity;
+        }
+        try (Connection conn = Db.getConnection()) {
+            return lookup(conn, email);
+        }
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            identities.invalidate(email);
+        }
+    }
+
+    public void invalidateUser(int userId) {
+        identities.invalidateIf((email, identity) -> identity.getId() == userId);
+    }
+
+    public Map<String, Object> stats() {
+        return identities.stats();
+    }
+}
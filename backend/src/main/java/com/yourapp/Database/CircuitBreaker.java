@@ -0,0 +1,128 @@
+package com.yourapp.Database;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker guarding connection acquisition.
+ *
+ * CLOSED: requests pass, consecutive failures are counted.
+ * OPEN: requests are rejected immediately until the backoff window elapses.
+ * HALF_OPEN: exactly one probe request is let through; success closes the
+ * breaker, failure re-opens it with a longer (exponential, jittered) window.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long baseOpenNanos;
+    private final long maxOpenNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private int consecutiveTrips = 0;
+    private long openUntil = 0;
+    private boolean probeInFlight = false;
+    private long totalTrips = 0;
+    private long rejected = 0;
+
+    public CircuitBreaker(int failureThreshold, long baseOpenMs, long maxOpenMs) {
+        this(failureThreshold, baseOpenMs, maxOpenMs, System::nanoTime);
+    }
+
+    public CircuitBreaker(int failureThreshold, long baseOpenMs, long maxOpenMs, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseOpenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, baseOpenMs));
+        this.maxOpenNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(baseOpenMs, maxOpenMs));
+        this.clock = clock;
+    }
+
+    /**
+     * @return true if the caller may try the protected operation, false if it should fail fast
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openUntil >= 0) {
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    return true;
+                }
+                rejected++;
+                return false;
+            case HALF_OPEN:
+            default:
+                if (!probeInFlight) {
+                    probeInFlight = true;
+                    return true;
+                }
+                rejected++;
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        consecutiveTrips = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        probeInFlight = false;
+        if (state == State.HALF_OPEN) {
+            trip();
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            trip();
+        }
+    }
+
+    private void trip() {
+        consecutiveTrips++;
+        totalTrips++;
+        state = State.OPEN;
+        openUntil = clock.getAsLong() + nextOpenNanos();
+    }
+
+    // Exponential backoff capped at maxOpen, with "equal jitter" so nodes don't probe in lockstep
+    private long nextOpenNanos() {
+        int shift = Math.min(consecutiveTrips - 1, 20);
+        long window = Math.min(maxOpenNanos, baseOpenNanos << shift);
+        long half = window / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Milliseconds until the breaker will allow a probe (0 when not open)
+     */
+    public synchronized long retryAfterMs() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntil - clock.getAsLong()));
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutive_failures", consecutiveFailures);
+        stats.put("retry_after_ms", retryAfterMs());
+        stats.put("total_trips", totalTrips);
+        stats.put("rejected", rejected);
+        return stats;
+    }
+}
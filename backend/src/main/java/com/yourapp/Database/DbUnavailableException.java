@@ -0,0 +1,25 @@
+package com.yourapp.Database;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown instead of waiting on the pool when the database circuit breaker is open
+ */
+public class DbUnavailableException extends SQLException {
+
+    private final long retryAfterMs;
+
+    public DbUnavailableException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public DbUnavailableException(String message, long retryAfterMs, Throwable cause) {
+        super(message, cause);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,157 @@
+package com.yourapp.Database;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.yourapp.Env;
+
+import org.eclipse.jetty.server.Request;
+
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes list responses row by row through a Jackson JsonGenerator straight to
+ * the response stream, instead of collecting a List<Map> and calling ctx.json.
+ * Memory per request stays constant however many rows there are.
+ *
+ * Statements feeding these should call setFetchSize(FETCH_SIZE); with
+ * useCursorFetch on the pool the driver then pulls rows from a server-side
+ * cursor in batches instead of buffering the whole result.
+ *
+ * If a row fails half way, the partial body is dropped while nothing has been sent
+ * (the handler's 500 goes out instead); once bytes are on the wire the connection is
+ * aborted, so the client sees a broken response rather than a shorter list that
+ * looks complete.
+ */
+public class JsonStream {
+
+    public static final int FETCH_SIZE = Env.getInt("DB_STREAM_FETCH_SIZE", 500);
+
+    // The response stream belongs to Javalin, which finishes (and compresses) it. Open
+    // arrays/objects are never closed for us: a failed stream must not end as valid JSON.
+    private static final JsonFactory FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+    private static final String ABORTED = "json-stream-aborted";
+
+    public interface RowWriter<T> {
+        void write(JsonGenerator json, T row) throws SQLException, IOException;
+    }
+
+    /**
+     * Writes one row and returns its sort key (used for the page cursor)
+     */
+    public interface KeyedRowWriter<K> {
+        K write(JsonGenerator json, ResultSet rs) throws SQLException, IOException;
+    }
+
+    private static JsonGenerator open(Context ctx) throws IOException {
+        ctx.contentType(ContentType.APPLICATION_JSON);
+        return FACTORY.createGenerator(ctx.outputStream());
+    }
+
+    /**
+     * Called with the failure of a stream; the caller rethrows it to the handler's serverError
+     */
+    private static void discard(Context ctx, Exception e) {
+        HttpServletResponse res = ctx.res();
+        // A started compressor has state outside the servlet buffer, so only a plain buffer can be reset
+        if (!res.isCommitted() && !res.containsHeader(Header.CONTENT_ENCODING)) {
+            res.resetBuffer();
+            return;
+        }
+        ctx.attribute(ABORTED, true);
+        Request.getBaseRequest(ctx.req()).getHttpChannel().abort(e);
+    }
+
+    /**
+     * Whether a failed stream cut the connection, in which case nothing more can be sent
+     */
+    public static boolean isAborted(Context ctx) {
+        return Boolean.TRUE.equals(ctx.attribute(ABORTED));
+    }
+
+    /**
+     * Streams every remaining row of rs as a JSON array
+     *
+     * @return the number of rows written
+     */
+    public static int writeArray(Context ctx, ResultSet rs, RowWriter<ResultSet> writer) throws SQLException, IOException {
+        int rows = 0;
+        // Not try-with-resources: closing would flush the partial body of a failed stream
+        JsonGenerator json = open(ctx);
+        try {
+            json.writeStartArray();
+            while (rs.next()) {
+                writer.write(json, rs);
+                rows++;
+            }
+            json.writeEndArray();
+            json.close();
+        } catch (SQLException | IOException | RuntimeException e) {
+            discard(ctx, e);
+            throw e;
+        }
+        return rows;
+    }
+
+    /**
+     * Streams an in-memory list as a JSON array
+     */
+    public static <T> void writeArray(Context ctx, Iterable<T> items, RowWriter<T> writer) throws SQLException, IOException {
+        JsonGenerator json = open(ctx);
+        try {
+            json.writeStartArray();
+            for (T item : items) {
+                writer.write(json, item);
+            }
+            json.writeEndArray();
+            json.close();
+        } catch (SQLException | IOException | RuntimeException e) {
+            discard(ctx, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Streams {"items": [...], "next_cursor": ...} from a query run with LIMIT limit + 1:
+     * up to limit rows are written, and the extra row only tells us there is a next page,
+     * whose cursor is the key of the last written row.
+     */
+    public static <K> void writePage(Context ctx, ResultSet rs, int limit, KeyedRowWriter<K> writer,
+                                     Function<K, String> cursorOf) throws SQLException, IOException {
+        JsonGenerator json = open(ctx);
+        try {
+            json.writeStartObject();
+            json.writeArrayFieldStart("items");
+
+            K last = null;
+            int rows = 0;
+            boolean hasMore = false;
+            while (rs.next()) {
+                if (rows == limit) {
+                    hasMore = true;
+                    break;
+                }
+                last = writer.write(json, rs);
+                rows++;
+            }
+
+            json.writeEndArray();
+            json.writeStringField("next_cursor", hasMore ? cursorOf.apply(last) : null);
+            json.writeEndObject();
+            json.close();
+        } catch (SQLException | IOException | RuntimeException e) {
+            discard(ctx, e);
+            throw e;
+        }
+    }
+}
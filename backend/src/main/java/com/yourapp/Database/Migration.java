@@ -0,0 +1,126 @@
+package com.yourapp.Database;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One versioned SQL file from db/migrations, e.g. V003__time_slot_indexes.sql.
+ *
+ * Statements end with ';' at the end of a line. A comment directly above a
+ * statement can make it conditional, since MySQL has no IF NOT EXISTS for columns
+ * and indexes and databases created from the initdb dump already have them:
+ *
+ *   -- @skip-if-table-exists  table
+ *   -- @skip-if-column-exists table column
+ *   -- @skip-if-index-exists  table index
+ *   -- @skip-if-index-missing table index
+ */
+public class Migration {
+
+    public static class Statement {
+        private final String sql;
+        private final List<String[]> conditions;
+
+        Statement(String sql, List<String[]> conditions) {
+            this.sql = sql;
+            this.conditions = conditions;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * Directives as {name, table, object}
+         */
+        public List<String[]> getConditions() {
+            return conditions;
+        }
+    }
+
+    private final String version;
+    private final String description;
+    private final String checksum;
+    private final List<Statement> statements;
+
+    public Migration(String fileName, String content) {
+        if (!fileName.matches("V\\d+__\\w+\\.sql")) {
+            throw new IllegalArgumentException("Invalid migration file name: " + fileName);
+        }
+        this.version = fileName.substring(0, fileName.indexOf("__"));
+        this.description = fileName.substring(fileName.indexOf("__") + 2, fileName.length() - 4).replace('_', ' ');
+        this.checksum = checksum(content);
+        this.statements = parse(content);
+    }
+
+    /**
+     * SHA-256 of the file with line endings normalised, so a checkout on Windows doesn't count as an edit
+     */
+    static String checksum(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static List<Statement> parse(String content) {
+        List<Statement> statements = new ArrayList<>();
+        List<String[]> conditions = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+
+        for (String rawLine : content.split("\r?\n")) {
+            String line = rawLine.trim();
+            if (line.startsWith("-- @")) {
+                String[] parts = line.substring(4).trim().split("\\s+");
+                if (parts.length < 2 || parts.length > 3 || !parts[0].startsWith("skip-if-")) {
+                    throw new IllegalArgumentException("Invalid migration directive: " + line);
+                }
+                // skip-if-table-exists only names the table
+                conditions.add(new String[] {parts[0], parts[1], parts.length == 3 ? parts[2] : parts[1]});
+                continue;
+            }
+            if (line.isEmpty() || line.startsWith("--")) {
+                continue;
+            }
+
+            sql.append(sql.length() == 0 ? "" : "\n").append(rawLine);
+            if (line.endsWith(";")) {
+                String statement = sql.toString().trim();
+                statements.add(new Statement(statement.substring(0, statement.length() - 1), conditions));
+                conditions = new ArrayList<>();
+                sql.setLength(0);
+            }
+        }
+        if (sql.length() > 0) {
+            throw new IllegalArgumentException("Migration ends without ';': " + sql);
+        }
+        return Collections.unmodifiableList(statements);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public List<Statement> getStatements() {
+        return statements;
+    }
+}
@@ -0,0 +1,248 @@
+package com.yourapp.Database;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.yourapp.Db;
+import com.yourapp.Env;
+
+/**
+ * Applies the SQL files listed in db/migrations/index.txt (classpath, so they ship
+ * inside the jar) in order, once each, recording them in schema_migrations.
+ *
+ * A MySQL named lock (GET_LOCK) keeps nodes that start together from running the
+ * same migration twice; the others wait and then find nothing left to do. MySQL
+ * commits DDL implicitly, so a migration that fails half way is not rolled back:
+ * write statements so a re-run is harmless (IF NOT EXISTS or a skip-if directive,
+ * see Migration). Index changes should use ALGORITHM=INPLACE, LOCK=NONE so they
+ * don't block writes, and lock_wait_timeout keeps a DDL stuck behind a long query
+ * from stalling the tables for everyone else.
+ */
+public class MigrationRunner {
+
+    private static final String LOCATION = "db/migrations/";
+    private static final String LOCK_NAME = "tenis_schema_migrations";
+
+    private final int lockTimeoutSeconds = Env.getInt("MIGRATION_LOCK_TIMEOUT_S", 300);
+    private final int ddlLockWaitSeconds = Env.getInt("MIGRATION_DDL_LOCK_WAIT_S", 30);
+
+    private final Map<String, Object> lastRun = new LinkedHashMap<>();
+
+    /**
+     * Loads the migrations named in the classpath index, in index order
+     */
+    public static List<Migration> load() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        int previous = -1;
+        List<String> index = readResource(LOCATION + "index.txt").stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .collect(Collectors.toList());
+        for (String fileName : index) {
+            Migration migration = new Migration(fileName, String.join("\n", readResource(LOCATION + fileName)));
+            int number = Integer.parseInt(migration.getVersion().substring(1));
+            if (number <= previous) {
+                throw new IllegalStateException("Migrations out of order in index.txt at " + fileName);
+            }
+            previous = number;
+            migrations.add(migration);
+        }
+        return migrations;
+    }
+
+    private static List<String> readResource(String resource) throws IOException {
+        InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Missing migration resource " + resource);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Brings the schema up to date.
+     *
+     * @return number of migrations applied by this node
+     * @throws IllegalStateException if an applied migration file was changed afterwards
+     */
+    public int migrate() throws IOException, SQLException {
+        List<Migration> migrations = load();
+        long startedAt = System.currentTimeMillis();
+
+        // GET_LOCK belongs to the session, so everything runs on this one connection
+        try (Connection conn = Db.getConnection()) {
+            if (!acquireLock(conn)) {
+                throw new SQLException("Timed out waiting for the migration lock after " + lockTimeoutSeconds + "s");
+            }
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TABLE IF NOT EXISTS schema_migrations ("
+                            + "version varchar(32) NOT NULL PRIMARY KEY, "
+                            + "description varchar(255) NOT NULL, "
+                            + "checksum char(64) NOT NULL, "
+                            + "execution_ms int NOT NULL, "
+                            + "applied_at timestamp NULL DEFAULT CURRENT_TIMESTAMP)");
+                    stmt.execute("SET SESSION lock_wait_timeout = " + ddlLockWaitSeconds);
+                }
+
+                Map<String, String> applied = appliedChecksums(conn);
+                int count = 0;
+                for (Migration migration : migrations) {
+                    String checksum = applied.get(migration.getVersion());
+                    if (checksum != null) {
+                        if (!checksum.equals(migration.getChecksum())) {
+                            throw new IllegalStateException("Migration " + migration.getVersion()
+                                    + " was changed after it was applied; add a new migration instead");
+                        }
+                        continue;
+                    }
+                    apply(conn, migration);
+                    count++;
+                }
+
+                synchronized (lastRun) {
+                    lastRun.put("known", migrations.size());
+                    lastRun.put("applied_now", count);
+                    lastRun.put("latest", migrations.isEmpty() ? null : migrations.get(migrations.size() - 1).getVersion());
+                    lastRun.put("duration_ms", System.currentTimeMillis() - startedAt);
+                }
+                return count;
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    private boolean acquireLock(Connection conn) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)");
+        stmt.setString(1, LOCK_NAME);
+        stmt.setInt(2, lockTimeoutSeconds);
+        ResultSet rs = stmt.executeQuery();
+        return rs.next() && rs.getInt(1) == 1;
+    }
+
+    private void releaseLock(Connection conn) {
+        try {
+            // The connection goes back to the pool, don't leave the DDL timeout on it
+            conn.createStatement().execute("SET SESSION lock_wait_timeout = DEFAULT");
+
+            PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)");
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery();
+        } catch (SQLException e) {
+            // The lock goes with the session anyway once the connection is closed
+            System.err.println("⚠️ Could not release migration lock: " + e.getMessage());
+        }
+    }
+
+    private Map<String, String> appliedChecksums(Connection conn) throws SQLException {
+        Map<String, String> applied = new HashMap<>();
+        ResultSet rs = conn.createStatement().executeQuery("SELECT version, checksum FROM schema_migrations");
+        while (rs.next()) {
+            applied.put(rs.getString("version"), rs.getString("checksum"));
+        }
+        return applied;
+    }
+
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+        int executed = 0;
+        for (Migration.Statement statement : migration.getStatements()) {
+            if (shouldSkip(conn, statement)) {
+                continue;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(statement.getSql());
+                executed++;
+            } catch (SQLException e) {
+                throw new SQLException("Migration " + migration.getVersion() + " failed: " + e.getMessage(), e);
+            }
+        }
+        int elapsed = (int) (System.currentTimeMillis() - start);
+
+        PreparedStatement record = conn.prepareStatement(
+                "INSERT INTO schema_migrations (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)");
+        record.setString(1, migration.getVersion());
+        record.setString(2, migration.getDescription());
+        record.setString(3, migration.getChecksum());
+        record.setInt(4, elapsed);
+        record.executeUpdate();
+
+        System.out.println("🗄️ Applied migration " + migration.getVersion() + " " + migration.getDescription()
+                + " (" + executed + "/" + migration.getStatements().size() + " statements, " + elapsed + " ms)");
+    }
+
+    private boolean shouldSkip(Connection conn, Migration.Statement statement) throws SQLException {
+        for (String[] condition : statement.getConditions()) {
+            String name = condition[0];
+            String table = condition[1];
+            String object = condition[2];
+            switch (name) {
+                case "skip-if-table-exists":
+                    if (tableExists(conn, object)) {
+                        return true;
+                    }
+                    break;
+                case "skip-if-column-exists":
+                    if (exists(conn, "SELECT 1 FROM information_schema.columns "
+                            + "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?", table, object)) {
+                        return true;
+                    }
+                    break;
+                case "skip-if-index-exists":
+                    if (exists(conn, "SELECT 1 FROM information_schema.statistics "
+                            + "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?", table, object)) {
+                        return true;
+                    }
+                    break;
+                case "skip-if-index-missing":
+                    if (!exists(conn, "SELECT 1 FROM information_schema.statistics "
+                            + "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?", table, object)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown migration directive: " + name);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a table exists in the current schema; jobs use it to wait for the
+     * migration that creates their table instead of creating it themselves
+     */
+    public static boolean tableExists(Connection conn, String table) throws SQLException {
+        return exists(conn, "SELECT 1 FROM information_schema.tables "
+                + "WHERE table_schema = DATABASE() AND table_name = ?", table);
+    }
+
+    private static boolean exists(Connection conn, String sql, String... params) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        for (int i = 0; i < params.length; i++) {
+            stmt.setString(i + 1, params[i]);
+        }
+        return stmt.executeQuery().next();
+    }
+
+    public Map<String, Object> stats() {
+        synchronized (lastRun) {
+            return new LinkedHashMap<>(lastRun);
+        }
+    }
+}
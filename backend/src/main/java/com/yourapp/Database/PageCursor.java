@@ -0,0 +1,78 @@
+package com.yourapp.Database;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.yourapp.Env;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort key of the last row
+ * of a page, joined with '|' and base64url encoded. Clients send it back as
+ * ?cursor= and the next page starts strictly after that row.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    public static final int DEFAULT_PAGE_SIZE = Env.getInt("PAGE_SIZE_DEFAULT", 50);
+    public static final int MAX_PAGE_SIZE = Env.getInt("PAGE_SIZE_MAX", 200);
+
+    /**
+     * ?limit= clamped to 1..PAGE_SIZE_MAX, PAGE_SIZE_DEFAULT when absent
+     */
+    public static int pageSize(String limitParam) {
+        if (limitParam == null || limitParam.trim().isEmpty()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            return Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(limitParam.trim())));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Neispravan limit");
+        }
+    }
+
+    public static String encode(Object... keyParts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < keyParts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(keyParts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the key parts, or null for a missing/blank token (first page)
+     * @throws IllegalArgumentException if the token is malformed or has the wrong number of parts
+     */
+    public static String[] decode(String token, int expectedParts) {
+        if (token == null || token.trim().isEmpty()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Neispravan cursor");
+        }
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Neispravan cursor");
+        }
+        return parts;
+    }
+
+    /**
+     * Standard page body: {"items": [...], "next_cursor": "..." or null}
+     */
+    public static Map<String, Object> page(List<?> items, String nextCursor) {
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("items", items);
+        page.put("next_cursor", nextCursor);
+        return page;
+    }
+}
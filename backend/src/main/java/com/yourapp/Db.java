@@ -1,8 +1,19 @@
 package com.yourapp;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.yourapp.Database.CircuitBreaker;
+import com.yourapp.Database.DbUnavailableException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 public class Db {
 
@@ -15,39 +26,178 @@ public class Db {
     private static final String URL = "jdbc:mysql://" + DB_HOST + ":" + DB_PORT + "/" + DB_NAME
             + "?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
 
+    // Pool sizing and housekeeping (all overridable from the environment)
+    private static final int POOL_MIN_IDLE = Env.getInt("DB_POOL_MIN", 2);
+    private static final int POOL_MAX_SIZE = Env.getInt("DB_POOL_MAX", 10);
+    private static final long POOL_ACQUIRE_TIMEOUT_MS = Env.getLong("DB_POOL_ACQUIRE_TIMEOUT_MS", 2000);
+    private static final long POOL_VALIDATION_TIMEOUT_MS = Env.getLong("DB_POOL_VALIDATION_TIMEOUT_MS", 2000);
+    private static final long POOL_IDLE_TIMEOUT_MS = Env.getLong("DB_POOL_IDLE_TIMEOUT_MS", 300000);
+    private static final long POOL_KEEPALIVE_MS = Env.getLong("DB_POOL_KEEPALIVE_MS", 120000);
+    private static final long POOL_MAX_LIFETIME_MS = Env.getLong("DB_POOL_MAX_LIFETIME_MS", 1800000);
+
+    private static final HikariDataSource DATA_SOURCE = createDataSource();
+
+    // Fail fast while MySQL is down instead of parking every Jetty worker on the pool
+    private static final CircuitBreaker BREAKER = new CircuitBreaker(
+            Env.getInt("DB_BREAKER_FAILURE_THRESHOLD", 3),
+            Env.getLong("DB_BREAKER_OPEN_MS", 1000),
+            Env.getLong("DB_BREAKER_MAX_OPEN_MS", 30000));
+
+    // Acquire metrics
+    private static final LongAdder acquireCount = new LongAdder();
+    private static final LongAdder acquireFailures = new LongAdder();
+    private static final LongAdder acquireNanosTotal = new LongAdder();
+    private static final AtomicLong acquireNanosMax = new AtomicLong();
+
+    private static HikariDataSource createDataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("tenis-db");
+        config.setJdbcUrl(URL);
+        config.setUsername(DB_USER);
+        config.setPassword(DB_PASS);
+
+        config.setMinimumIdle(Math.min(POOL_MIN_IDLE, POOL_MAX_SIZE));
+        config.setMaximumPoolSize(POOL_MAX_SIZE);
+        config.setConnectionTimeout(POOL_ACQUIRE_TIMEOUT_MS);
+        config.setValidationTimeout(POOL_VALIDATION_TIMEOUT_MS);
+        config.setIdleTimeout(POOL_IDLE_TIMEOUT_MS);
+        config.setKeepaliveTime(POOL_KEEPALIVE_MS);
+        config.setMaxLifetime(POOL_MAX_LIFETIME_MS);
+
+        // Don't refuse to start when MySQL is still booting, connections are opened lazily
+        config.setInitializationFailTimeout(-1);
+
+        // MySQL driver: server-side prepared statement cache and multi-row batch rewriting
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        // Statements with a fetch size read rows from a server-side cursor (JsonStream)
+        config.addDataSourceProperty("useCursorFetch", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("useLocalSessionState", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+
+        System.out.println("🔌 DB pool configured (min " + config.getMinimumIdle() + ", max " + POOL_MAX_SIZE + ")");
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing the connection returns it to the pool.
+     * Throws DbUnavailableException right away while the circuit breaker is open.
+     */
     public static Connection getConnection() throws SQLException {
-        boolean connected = false;
-        int retries = 5;
-        SQLException lastException = null;
+        if (!BREAKER.allowRequest()) {
+            throw new DbUnavailableException("Database unavailable", BREAKER.retryAfterMs());
+        }
+
+        long start = System.nanoTime();
+        try {
+            Connection connection = DATA_SOURCE.getConnection();
+            BREAKER.recordSuccess();
+            recordAcquire(System.nanoTime() - start);
+            return connection;
+        } catch (SQLException e) {
+            acquireFailures.increment();
+            if (isPoolExhausted(e)) {
+                // MySQL is reachable, we are just busy; not a reason to open the breaker
+                BREAKER.recordSuccess();
+                throw e;
+            }
+            BREAKER.recordFailure();
+            System.out.println("❌ DB connection failed: " + e.getMessage());
+            throw new DbUnavailableException("Database unavailable: " + e.getMessage(), BREAKER.retryAfterMs(), e);
+        } catch (RuntimeException e) {
+            BREAKER.recordFailure();
+            throw e;
+        }
+    }
+
+    // Hikari reports an acquire timeout without a cause when every connection is simply in use
+    private static boolean isPoolExhausted(SQLException e) {
+        return e instanceof SQLTransientConnectionException && e.getCause() == null;
+    }
 
-        while (!connected && retries > 0) {
-            try {
-                Connection connection = DriverManager.getConnection(URL, DB_USER, DB_PASS);
+    /**
+     * Blocks startup until MySQL answers, retrying with exponential backoff.
+     * Only meant for main(), request threads should never wait on this.
+     */
+    public static boolean awaitAvailable(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        long backoffMs = 500;
+
+        while (true) {
+            try (Connection connection = DATA_SOURCE.getConnection()) {
+                BREAKER.recordSuccess();
                 System.out.println("✅ DB connection established!");
-                return connection;
+                return true;
             } catch (SQLException e) {
-                if (retries == 5) {
-                    System.out.println("❌ Initial DB connection failed: " + e.getMessage());
-                } else {
-                    System.out.println("❌ DB connection retry failed: " + e.getMessage());
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    System.out.println("❌ Could not connect to DB: " + e.getMessage());
+                    return false;
                 }
-
-                retries--;
-                lastException = e;
-
-                if (retries > 0) {
-                    System.out.println("🔄 Retrying in 2 seconds... (" + retries + " retries left)");
-                    try {
-                        Thread.sleep(2000);
-                    } catch (InterruptedException ie) {
-                        // ignore
-                    }
-                } else {
-                    System.out.println("❌ Could not connect to DB after retries.");
+                System.out.println("🔄 DB not ready, retrying in " + backoffMs + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(Math.min(backoffMs, remaining));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
                 }
+                backoffMs = Math.min(backoffMs * 2, 8000);
             }
         }
+    }
+
+    public static CircuitBreaker.State breakerState() {
+        return BREAKER.getState();
+    }
+
+    public static Map<String, Object> breakerStats() {
+        return BREAKER.snapshot();
+    }
+
+    private static void recordAcquire(long nanos) {
+        acquireCount.increment();
+        acquireNanosTotal.add(nanos);
+        long max = acquireNanosMax.get();
+        while (nanos > max && !acquireNanosMax.compareAndSet(max, nanos)) {
+            max = acquireNanosMax.get();
+        }
+    }
+
+    /**
+     * Snapshot of pool state and acquire timings, for the health endpoint
+     */
+    public static Map<String, Object> poolStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        HikariPoolMXBean pool = DATA_SOURCE.getHikariPoolMXBean();
+
+        stats.put("min_idle", DATA_SOURCE.getMinimumIdle());
+        stats.put("max_size", DATA_SOURCE.getMaximumPoolSize());
+        if (pool != null) {
+            stats.put("active", pool.getActiveConnections());
+            stats.put("idle", pool.getIdleConnections());
+            stats.put("total", pool.getTotalConnections());
+            stats.put("waiters", pool.getThreadsAwaitingConnection());
+        }
+
+        long count = acquireCount.sum();
+        stats.put("acquire_count", count);
+        stats.put("acquire_failures", acquireFailures.sum());
+        stats.put("acquire_avg_ms", count == 0 ? 0.0 : nanosToMillis(acquireNanosTotal.sum() / (double) count));
+        stats.put("acquire_max_ms", nanosToMillis(acquireNanosMax.get()));
+        return stats;
+    }
+
+    private static double nanosToMillis(double nanos) {
+        return Math.round(nanos / TimeUnit.MILLISECONDS.toNanos(1) * 1000.0) / 1000.0;
+    }
 
-        throw lastException; // If failed after retries, throw last exception
+    public static void shutdown() {
+        DATA_SOURCE.close();
     }
 }
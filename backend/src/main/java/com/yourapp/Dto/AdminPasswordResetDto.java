@@ -0,0 +1,34 @@
+package com.yourapp.Dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of PUT /api/users/admin/reset-password
+ */
+public class AdminPasswordResetDto {
+
+    private final int userId;
+    private final String newPassword;
+
+    @JsonCreator
+    public AdminPasswordResetDto(@JsonProperty("user_id") Integer userId,
+                                 @JsonProperty("new_password") String newPassword) {
+        if (userId == null || newPassword == null) {
+            throw new IllegalArgumentException("Nedostaju potrebna polja");
+        }
+        if (newPassword.length() < 6) {
+            throw new IllegalArgumentException("Lozinka mora imati najmanje 6 znakova");
+        }
+        this.userId = userId;
+        this.newPassword = newPassword;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getNewPassword() {
+        return newPassword;
+    }
+}
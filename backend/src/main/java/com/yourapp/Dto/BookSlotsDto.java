@@ -0,0 +1,35 @@
+package com.yourapp.Dto;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of POST /api/time-slots/book: {"slot_ids": [12, 13]}
+ */
+public class BookSlotsDto {
+
+    private final TreeSet<Integer> slotIds = new TreeSet<>();
+
+    @JsonCreator
+    public BookSlotsDto(@JsonProperty("slot_ids") List<Integer> slotIds) {
+        if (slotIds == null || slotIds.isEmpty()) {
+            throw new IllegalArgumentException("Nedostaju potrebna polja");
+        }
+        for (Integer id : slotIds) {
+            if (id == null) {
+                throw new IllegalArgumentException("Neispravan format broja");
+            }
+            this.slotIds.add(id);
+        }
+    }
+
+    /**
+     * Sorted and de-duplicated: rows are locked in id order, so two overlapping requests can't deadlock
+     */
+    public TreeSet<Integer> getSlotIds() {
+        return slotIds;
+    }
+}
@@ -0,0 +1,24 @@
+package com.yourapp.Dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of POST /api/auth/forgot-password
+ */
+public class ForgotPasswordDto {
+
+    private final String email;
+
+    @JsonCreator
+    public ForgotPasswordDto(@JsonProperty("email") String email) {
+        if (email == null || email.trim().isEmpty()) {
+            throw new IllegalArgumentException("Email je obavezan");
+        }
+        this.email = email;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
@@ -0,0 +1,122 @@
+package com.yourapp.Dto;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.ValueInstantiationException;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.yourapp.Env;
+
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.json.JavalinJackson;
+
+/**
+ * The one ObjectMapper of the app (also behind ctx.json / ctx.bodyAsClass) plus
+ * ObjectReader/ObjectWriter instances built once per DTO class, so a request
+ * doesn't look up its (de)serializer again.
+ *
+ * DTOs validate in their @JsonCreator constructors; read() turns those failures
+ * into an IllegalArgumentException with a message fit for a 400 response.
+ */
+public class Json {
+
+    public static final ObjectMapper MAPPER = createMapper();
+
+    private static final ConcurrentHashMap<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper()
+                // The frontend sends whole form objects, extra fields are not an error
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        // Bytecode-generated property access instead of reflection, off until measured on the deployment JVM
+        if (Env.getBoolean("JSON_AFTERBURNER", false)) {
+            mapper.registerModule(new AfterburnerModule());
+            System.out.println("⚡ Jackson Afterburner enabled");
+        }
+        return mapper;
+    }
+
+    public static JavalinJackson javalinMapper() {
+        return new JavalinJackson(MAPPER);
+    }
+
+    /**
+     * Reads the request body into a DTO.
+     *
+     * @throws IllegalArgumentException with a message fit for a 400 response
+     */
+    public static <T> T read(Context ctx, Class<T> type) {
+        return read(ctx.bodyAsBytes(), type);
+    }
+
+    static <T> T read(byte[] body, Class<T> type) {
+        if (body.length == 0) {
+            throw new IllegalArgumentException("Nedostaju potrebna polja");
+        }
+        try {
+            return READERS.computeIfAbsent(type, MAPPER::readerFor).readValue(body);
+        } catch (IOException e) {
+            throw invalid(e);
+        }
+    }
+
+    /**
+     * Same as read() for one element of a larger document, e.g. a row of a bulk import
+     * that was pulled off a streaming parser.
+     *
+     * @throws IllegalArgumentException with a message fit for a 400 response
+     */
+    public static <T> T read(JsonNode node, Class<T> type) {
+        try {
+            return READERS.computeIfAbsent(type, MAPPER::readerFor).readValue(node);
+        } catch (IOException e) {
+            throw invalid(e);
+        }
+    }
+
+    private static IllegalArgumentException invalid(IOException e) {
+        if (e instanceof ValueInstantiationException) {
+            // Thrown by the DTO's own validation
+            Throwable cause = e.getCause();
+            return cause instanceof IllegalArgumentException
+                    ? (IllegalArgumentException) cause
+                    : new IllegalArgumentException("Neispravan zahtjev");
+        }
+        if (e instanceof MismatchedInputException) {
+            MismatchedInputException mismatch = (MismatchedInputException) e;
+            return new IllegalArgumentException(mismatch.getPath().isEmpty()
+                    ? "Neispravan zahtjev"
+                    : "Neispravan format polja '" + fieldName(mismatch) + "'");
+        }
+        return new IllegalArgumentException("Neispravan JSON");
+    }
+
+    private static String fieldName(JsonMappingException e) {
+        for (int i = e.getPath().size() - 1; i >= 0; i--) {
+            String name = e.getPath().get(i).getFieldName();
+            if (name != null) {
+                return name;
+            }
+        }
+        return "?";
+    }
+
+    /**
+     * Writes a DTO (or a list of them) as the JSON response
+     */
+    public static void write(Context ctx, Object value) throws JsonProcessingException {
+        ObjectWriter writer = WRITERS.computeIfAbsent(value.getClass(), MAPPER::writerFor);
+        ctx.contentType(ContentType.APPLICATION_JSON).result(writer.writeValueAsBytes(value));
+    }
+}
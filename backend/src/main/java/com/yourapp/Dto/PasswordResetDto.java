@@ -0,0 +1,34 @@
+package com.yourapp.Dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of POST /api/auth/reset-password (newPassword is camelCase in this one)
+ */
+public class PasswordResetDto {
+
+    private final String token;
+    private final String newPassword;
+
+    @JsonCreator
+    public PasswordResetDto(@JsonProperty("token") String token,
+                            @JsonProperty("newPassword") String newPassword) {
+        if (token == null || newPassword == null) {
+            throw new IllegalArgumentException("Token i nova lozinka su potrebni");
+        }
+        if (newPassword.length() < 6) {
+            throw new IllegalArgumentException("Lozinka mora imati najmanje 6 znakova");
+        }
+        this.token = token;
+        this.newPassword = newPassword;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getNewPassword() {
+        return newPassword;
+    }
+}
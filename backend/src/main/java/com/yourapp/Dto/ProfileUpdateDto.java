@@ -0,0 +1,45 @@
+package com.yourapp.Dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of PUT /api/users/profile
+ */
+public class ProfileUpdateDto {
+
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phone;
+
+    @JsonCreator
+    public ProfileUpdateDto(@JsonProperty("first_name") String firstName,
+                            @JsonProperty("last_name") String lastName,
+                            @JsonProperty("email") String email,
+                            @JsonProperty("phone") String phone) {
+        if (firstName == null || lastName == null || email == null) {
+            throw new IllegalArgumentException("Nedostaju potrebna polja");
+        }
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+}
@@ -0,0 +1,71 @@
+package com.yourapp.Dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of POST /api/users/admin/register
+ */
+public class RegisterUserDto {
+
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String password;
+    private final String phone;
+    private final String role;
+    private final BigDecimal balance;
+
+    @JsonCreator
+    public RegisterUserDto(@JsonProperty("first_name") String firstName,
+                           @JsonProperty("last_name") String lastName,
+                           @JsonProperty("email") String email,
+                           @JsonProperty("password") String password,
+                           @JsonProperty("phone") String phone,
+                           @JsonProperty("role") String role,
+                           @JsonProperty("balance") BigDecimal balance) {
+        if (firstName == null || lastName == null || email == null || password == null || role == null) {
+            throw new IllegalArgumentException("Nedostaju potrebna polja");
+        }
+        if (!"USER".equals(role) && !"ADMIN".equals(role)) {
+            throw new IllegalArgumentException("Nevažeća uloga. Mora biti USER ili ADMIN");
+        }
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.password = password;
+        this.phone = phone;
+        this.role = role;
+        this.balance = balance != null ? balance : BigDecimal.ZERO;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+}
@@ -0,0 +1,56 @@
+package com.yourapp.Dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yourapp.TimeSlots.SlotTemplate;
+
+/**
+ * Body of POST /api/time-slots: {"date": "2025-09-01", "start_time": "16:00", "end_time": "17:00", "price": 20.00}
+ */
+public class SlotCreateDto {
+
+    private final LocalDate date;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final BigDecimal price;
+
+    @JsonCreator
+    public SlotCreateDto(@JsonProperty("date") String date,
+                         @JsonProperty("start_time") String startTime,
+                         @JsonProperty("end_time") String endTime,
+                         @JsonProperty("price") BigDecimal price) {
+        try {
+            this.date = LocalDate.parse(date);
+            this.startTime = LocalTime.parse(startTime);
+            this.endTime = LocalTime.parse(endTime);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Neispravan datum ili vrijeme");
+        }
+        // Optional, booking a priced slot debits the user's balance
+        this.price = SlotTemplate.parsePrice(price);
+        if (this.price != null && this.price.signum() < 0) {
+            throw new IllegalArgumentException("Cijena ne može biti negativna");
+        }
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,63 @@
+package com.yourapp.Dto;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yourapp.TimeSlots.SlotTemplate;
+
+/**
+ * Body of POST /api/time-slots/bulk, see SlotTemplate for the format.
+ * slot_minutes defaults to 60 when left out; anything that isn't a number is a 400.
+ */
+public class SlotTemplateDto {
+
+    private final SlotTemplate template;
+
+    @JsonCreator
+    public SlotTemplateDto(@JsonProperty("from") String from,
+                           @JsonProperty("to") String to,
+                           @JsonProperty("days") List<String> days,
+                           @JsonProperty("start_time") String startTime,
+                           @JsonProperty("end_time") String endTime,
+                           @JsonProperty("slot_minutes") Integer slotMinutes,
+                           @JsonProperty("exclude_dates") List<String> excludeDates,
+                           @JsonProperty("price") BigDecimal price) {
+        if (from == null || to == null || startTime == null || endTime == null) {
+            throw new IllegalArgumentException("Nedostaju potrebna polja");
+        }
+        try {
+            Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+            if (days != null) {
+                for (String day : days) {
+                    weekdays.add(SlotTemplate.parseDay(day));
+                }
+            }
+
+            Set<LocalDate> excluded = new HashSet<>();
+            if (excludeDates != null) {
+                for (String date : excludeDates) {
+                    excluded.add(LocalDate.parse(date));
+                }
+            }
+
+            this.template = new SlotTemplate(LocalDate.parse(from), LocalDate.parse(to), weekdays,
+                    LocalTime.parse(startTime), LocalTime.parse(endTime),
+                    slotMinutes == null ? 60 : slotMinutes, excluded, SlotTemplate.parsePrice(price));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Neispravan datum ili vrijeme: " + e.getParsedString());
+        }
+    }
+
+    public SlotTemplate getTemplate() {
+        return template;
+    }
+}
@@ -0,0 +1,57 @@
+package com.yourapp.Dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Body of POST /api/transactions/create
+ */
+public class TransactionCreateDto {
+
+    private final int userId;
+    private final String transactionType;
+    private final BigDecimal amount;
+    private final String description;
+
+    @JsonCreator
+    public TransactionCreateDto(@JsonProperty("user_id") Integer userId,
+                                @JsonProperty("transaction_type") String transactionType,
+                                @JsonProperty("amount") BigDecimal amount,
+                                @JsonProperty("description") String description) {
+        if (userId == null || transactionType == null || amount == null || description == null) {
+            throw new IllegalArgumentException("Nedostaju potrebna polja");
+        }
+        if (!"ADD".equals(transactionType) && !"SUBTRACT".equals(transactionType)) {
+            throw new IllegalArgumentException("Neispravna vrsta transakcije. Mora biti ADD ili SUBTRACT");
+        }
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Iznos mora biti pozitivan");
+        }
+        // Stored as DECIMAL(12,2), refuse rather than silently round
+        if (amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Iznos može imati najviše dvije decimale");
+        }
+        this.userId = userId;
+        this.transactionType = transactionType;
+        this.amount = amount.setScale(2);
+        this.description = description;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getTransactionType() {
+        return transactionType;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
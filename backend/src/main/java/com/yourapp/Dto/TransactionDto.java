@@ -0,0 +1,96 @@
+package com.yourapp.Dto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * A transactions row as the API returns it
+ */
+@JsonPropertyOrder({"id", "user_id", "amount", "transaction_type", "description", "created_at"})
+public class TransactionDto {
+
+    private final int id;
+    private final int userId;
+    private final BigDecimal amount;
+    private final String transactionType;
+    private final String description;
+    private final LocalDateTime createdAt;
+
+    public TransactionDto(int id, int userId, BigDecimal amount, String transactionType, String description,
+                          LocalDateTime createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.amount = amount;
+        this.transactionType = transactionType;
+        this.description = description;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Reads id, user_id, amount, transaction_type, description and created_at from the current row
+     */
+    public static TransactionDto fromRow(ResultSet rs) throws SQLException {
+        return new TransactionDto(
+                rs.getInt("id"),
+                rs.getInt("user_id"),
+                rs.getBigDecimal("amount"),
+                rs.getString("transaction_type"),
+                rs.getString("description"),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
+
+    /**
+     * Same fields as the Jackson view, for rows streamed through JsonStream
+     */
+    public void writeFields(JsonGenerator json) throws IOException {
+        json.writeNumberField("id", id);
+        json.writeNumberField("user_id", userId);
+        json.writeNumberField("amount", amount);
+        json.writeStringField("transaction_type", transactionType);
+        json.writeStringField("description", description);
+        json.writeStringField("created_at", createdAt.toString());
+    }
+
+    @JsonProperty("id")
+    public int getId() {
+        return id;
+    }
+
+    @JsonProperty("user_id")
+    public int getUserId() {
+        return userId;
+    }
+
+    @JsonProperty("amount")
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    @JsonProperty("transaction_type")
+    public String getTransactionType() {
+        return transactionType;
+    }
+
+    @JsonProperty("description")
+    public String getDescription() {
+        return description;
+    }
+
+    @JsonIgnore
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @JsonProperty("created_at")
+    public String getCreatedAtText() {
+        return createdAt.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.yourapp.Dto;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * A users row as the API returns it (never the password)
+ */
+@JsonPropertyOrder({"id", "first_name", "last_name", "email", "phone", "balance", "role", "created_at"})
+public class UserDto {
+
+    private final int id;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phone;
+    private final BigDecimal balance;
+    private final String role;
+
+    public UserDto(int id, String firstName, String lastName, String email, String phone, BigDecimal balance, String role) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+        this.balance = balance;
+        this.role = role;
+    }
+
+    /**
+     * Reads id, first_name, last_name, email, phone, balance and role from the current row
+     */
+    public static UserDto fromRow(ResultSet rs) throws SQLException {
+        return new UserDto(
+                rs.getInt("id"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getBigDecimal("balance"),
+                rs.getString("role"));
+    }
+
+    @JsonProperty("id")
+    public int getId() {
+        return id;
+    }
+
+    @JsonProperty("first_name")
+    public String getFirstName() {
+        return firstName;
+    }
+
+    @JsonProperty("last_name")
+    public String getLastName() {
+        return lastName;
+    }
+
+    @JsonProperty("email")
+    public String getEmail() {
+        return email;
+    }
+
+    @JsonProperty("phone")
+    public String getPhone() {
+        return phone;
+    }
+
+    @JsonProperty("balance")
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    @JsonProperty("role")
+    public String getRole() {
+        return role;
+    }
+
+    // Always null since the column doesn't exist, kept for the frontend's User type
+    @JsonProperty("created_at")
+    public String getCreatedAt() {
+        return null;
+    }
+}
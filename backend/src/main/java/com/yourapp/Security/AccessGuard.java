@@ -0,0 +1,63 @@
+package com.yourapp.Security;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+import com.yourapp.Cache.IdentityCache;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.security.AccessManager;
+import io.javalin.security.RouteRole;
+
+/**
+ * Enforces the roles declared on a route, e.g. app.get(path, handler, Role.ADMIN).
+ *
+ * The signed "role" claim is trusted, so admin requests don't need a role query.
+ * To make demotions take effect quickly, the claim is also compared with the
+ * role from the identity cache, which re-reads the DB after its short TTL.
+ */
+public class AccessGuard implements AccessManager {
+
+    private final IdentityCache identityCache;
+
+    public AccessGuard(IdentityCache identityCache) {
+        this.identityCache = identityCache;
+    }
+
+    @Override
+    public void manage(Handler handler, Context ctx, Set<? extends RouteRole> routeRoles) throws Exception {
+        if (routeRoles.isEmpty()) {
+            handler.handle(ctx);
+            return;
+        }
+
+        AuthPrincipal principal = AuthFilter.principal(ctx);
+        if (principal == null) {
+            ctx.status(401).result("Unauthorized");
+            return;
+        }
+
+        if (!routeRoles.contains(principal.getRole()) || !routeRoles.contains(currentRole(principal.getEmail()))) {
+            ctx.status(403).result("Forbidden: Admins only");
+            return;
+        }
+
+        handler.handle(ctx);
+    }
+
+    // Revocation check: role as stored in the DB, cached for a short TTL
+    private Role currentRole(String email) throws SQLException {
+        IdentityCache.Identity identity = identityCache.lookup(email);
+        if (identity == null || identity.getRole() == null) {
+            return null;
+        }
+        try {
+            return Role.valueOf(identity.getRole());
+        } catch (IllegalArgumentException e) {
+            // Unknown value in users.role, deny (403) instead of failing the request
+            System.err.println("⚠️ Unknown role '" + identity.getRole() + "' for user: " + email);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.yourapp.Security;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.javalin.http.HandlerType;
+import io.javalin.http.UnauthorizedResponse;
+import io.javalin.routing.PathMatcher;
+
+/**
+ * Single authentication stage for every request, registered once with app.before(...).
+ *
+ * Routes on the public allowlist pass through untouched. Everything else needs a
+ * valid "Authorization: Bearer <jwt>" header; the verified caller is attached to
+ * the context as an AuthPrincipal, and rejected requests stop here with a 401.
+ * EventSource can't set headers, so streaming routes also accept ?access_token=.
+ * Paths no route matches are let through too, so they get Javalin's 404 rather than a 401.
+ */
+public class AuthFilter implements Handler {
+
+    public static final String PRINCIPAL = "principal";
+
+    // Exact paths, or prefixes when ending in "/*"
+    private static final List<String> PUBLIC_ROUTES = Arrays.asList(
+            "/",
+            "/health",
+            "/api/auth/*");
+
+    // Routes opened with EventSource, which can only pass the token in the URL
+    private static final List<String> QUERY_TOKEN_ROUTES = Arrays.asList(
+            "/api/time-slots/events");
+
+    private static final int MAX_TRACKED_ROUTES = 200;
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private static final class RouteStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+    }
+
+    private final JWTTokenProvider tokenProvider;
+    private final PathMatcher routes;
+    private final ConcurrentHashMap<String, RouteStats> routeStats = new ConcurrentHashMap<>();
+
+    /**
+     * @param routes the app's endpoint matcher (app.javalinServlet().getMatcher())
+     */
+    public AuthFilter(JWTTokenProvider tokenProvider, PathMatcher routes) {
+        this.tokenProvider = tokenProvider;
+        this.routes = routes;
+    }
+
+    /**
+     * @return the caller of an authenticated route (never null past the filter)
+     */
+    public static AuthPrincipal principal(Context ctx) {
+        return ctx.attribute(PRINCIPAL);
+    }
+
+    public static boolean isPublic(String path) {
+        for (String route : PUBLIC_ROUTES) {
+            if (route.endsWith("/*")) {
+                String prefix = route.substring(0, route.length() - 1);
+                if (path.startsWith(prefix) || path.equals(route.substring(0, route.length() - 2))) {
+                    return true;
+                }
+            } else if (path.equals(route)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void handle(Context ctx) {
+        // CORS preflight never carries credentials
+        if (ctx.method() == HandlerType.OPTIONS || isPublic(ctx.path()) || !hasRoute(ctx)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        RouteStats stats = statsFor(ctx);
+        stats.requests.increment();
+        try {
+            ctx.attribute(PRINCIPAL, authenticate(ctx));
+        } catch (UnauthorizedResponse e) {
+            stats.rejected.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            stats.totalNanos.add(elapsed);
+            long max = stats.maxNanos.get();
+            while (elapsed > max && !stats.maxNanos.compareAndSet(max, elapsed)) {
+                max = stats.maxNanos.get();
+            }
+        }
+    }
+
+    private boolean hasRoute(Context ctx) {
+        // HEAD is answered by the GET handler
+        HandlerType method = ctx.method() == HandlerType.HEAD ? HandlerType.GET : ctx.method();
+        return !routes.findEntries(method, ctx.path()).isEmpty();
+    }
+
+    private AuthPrincipal authenticate(Context ctx) {
+        String header = ctx.header("Authorization");
+        String token;
+
+        if (header != null && header.startsWith("Bearer ")) {
+            token = header.substring(7);
+        } else if (QUERY_TOKEN_ROUTES.contains(ctx.path()) && ctx.queryParam("access_token") != null) {
+            token = ctx.queryParam("access_token");
+        } else {
+            throw new UnauthorizedResponse("Missing or invalid Authorization header");
+        }
+
+        VerifiedToken verified = tokenProvider.verify(token);
+        if (verified == null) {
+            throw new UnauthorizedResponse("Invalid token");
+        }
+
+        return AuthPrincipal.fromToken(verified);
+    }
+
+    private RouteStats statsFor(Context ctx) {
+        String key = ctx.method() + " " + routeKey(ctx.path());
+        RouteStats stats = routeStats.get(key);
+        if (stats != null) {
+            return stats;
+        }
+        if (routeStats.size() >= MAX_TRACKED_ROUTES) {
+            key = "other";
+        }
+        return routeStats.computeIfAbsent(key, k -> new RouteStats());
+    }
+
+    // Collapse numeric path segments so /book/12 and /book/13 share one counter
+    static String routeKey(String path) {
+        return NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new TreeMap<>();
+        for (Map.Entry<String, RouteStats> e : routeStats.entrySet()) {
+            RouteStats stats = e.getValue();
+            long requests = stats.requests.sum();
+            Map<String, Object> route = new TreeMap<>();
+            route.put("requests", requests);
+            route.put("rejected", stats.rejected.sum());
+            route.put("avg_us", requests == 0 ? 0 : stats.totalNanos.sum() / requests / 1000);
+            route.put("max_us", stats.maxNanos.get() / 1000);
+            result.put(e.getKey(), route);
+        }
+        return result;
+    }
+}
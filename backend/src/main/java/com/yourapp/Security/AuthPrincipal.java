@@ -0,0 +1,32 @@
+package com.yourapp.Security;
+
+/**
+ * Authenticated caller, attached to the request context by AuthFilter
+ */
+public class AuthPrincipal {
+    private final String email;
+    private final Role role;
+
+    public AuthPrincipal(String email, Role role) {
+        this.email = email;
+        this.role = role;
+    }
+
+    public static AuthPrincipal fromToken(VerifiedToken token) {
+        Role role = null;
+        if (token.getRole() != null) {
+            try {
+                role = Role.valueOf(token.getRole());
+            } catch (IllegalArgumentException e) {
+                // Unknown role claim, treat as no role
+            }
+        }
+        return new AuthPrincipal(token.getSubject(), role);
+    }
+
+    public String getEmail() { return email; }
+
+    public Role getRole() { return role; }
+
+    public boolean isAdmin() { return role == Role.ADMIN; }
+}
@@ -1,48 +1,123 @@
 package com.yourapp.Security;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+
+import com.yourapp.Env;
+import com.yourapp.Cache.TtlCache;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 
 public class JWTTokenProvider {
 
-    private final Key key = Keys.secretKeyFor(SignatureAlgorithm.HS512); // Generates proper key
+    private final JwtKeyRing keyRing;
     private final long jwtExpirationInMs = 604800000; // 7 days
 
+    // Built once, JwtParser is immutable and thread-safe; the key is picked per token by its kid
+    private final JwtParser parser;
+
+    // Verified tokens keyed by SHA-256 of the token, each entry lives until the token expires
+    private final TtlCache<String, VerifiedToken> verifiedTokens = new TtlCache<>(
+            Env.getInt("JWT_CACHE_SIZE", 10000),
+            Env.getLong("JWT_CACHE_TTL_MS", 600000));
+
+    public JWTTokenProvider() {
+        this(JwtKeyRing.fromEnvironment());
+    }
+
+    public JWTTokenProvider(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        String kid = header.getKeyId();
+                        Key key = kid != null ? keyRing.verificationKey(kid) : keyRing.activeKey();
+                        if (key == null) {
+                            throw new JwtException("Unknown signing key: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        // A reload may have removed keys, so earlier verifications can't be trusted anymore
+        keyRing.onReload(verifiedTokens::clear);
+    }
+
     public String generateToken(String username, String role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
+        // Kid and key from the same snapshot, so they match even across a hot reload
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
                 .setSubject(username)
                 .claim("role", role) // <-- Add this line
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(key)
+                .signWith(signingKey.getKey(), SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Checks signature and expiry once and returns all claims we use.
+     * Repeat calls with the same token are answered from the cache.
+     * @return the verified claims, or null if the token is invalid or expired
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            VerifiedToken verified = new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get("role", String.class),
+                    claims.getExpiration());
+
+            if (verified.getExpiresAt() != null) {
+                verifiedTokens.put(digest, verified, verified.getExpiresAt().getTime());
+            } else {
+                verifiedTokens.put(digest, verified);
+            }
+            return verified;
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
 
-        return claims.getSubject();
+    public Map<String, Object> cacheStats() {
+        return verifiedTokens.stats();
     }
 
-    public boolean validateToken(String token) {
+    private static String digest(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (JwtException ex) {
-            return false;
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,239 @@
+package com.yourapp.Security;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Key;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.yourapp.Env;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * HMAC keys for signing and verifying JWTs, shared by every backend node.
+ *
+ * One key (the active kid) signs new tokens; every key in the ring verifies.
+ * To rotate: add the new key, switch "active" to it, and drop the old key once
+ * its tokens have expired (7 days).
+ *
+ * Sources, first match wins:
+ *   JWT_KEY_FILE   properties file, re-read when it changes:
+ *                    active=2025-06
+ *                    key.2025-06=<base64, at least 64 bytes>
+ *                    key.2025-01=<base64>
+ *   JWT_KEYS       "kid:base64,kid:base64" with JWT_ACTIVE_KID (defaults to the first kid)
+ *   neither        a random per-process key (tokens die with the process)
+ */
+public class JwtKeyRing {
+
+    private static final int MIN_KEY_BYTES = 64; // HS512
+
+    private static final class Snapshot {
+        final String activeKid;
+        final Map<String, Key> keys;
+
+        Snapshot(String activeKid, Map<String, Key> keys) {
+            this.activeKid = activeKid;
+            this.keys = Collections.unmodifiableMap(keys);
+        }
+    }
+
+    /**
+     * The active kid together with its key, taken from one snapshot
+     */
+    public static final class SigningKey {
+        private final String kid;
+        private final Key key;
+
+        SigningKey(String kid, Key key) {
+            this.kid = kid;
+            this.key = key;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public Key getKey() {
+            return key;
+        }
+    }
+
+    private final Path keyFile;
+    private volatile Snapshot snapshot;
+    private volatile long keyFileModified = -1;
+    private volatile Runnable onReload = () -> { };
+
+    private JwtKeyRing(Path keyFile, Snapshot snapshot) {
+        this.keyFile = keyFile;
+        this.snapshot = snapshot;
+    }
+
+    public static JwtKeyRing fromEnvironment() {
+        String file = Env.get("JWT_KEY_FILE", null);
+        if (file != null) {
+            JwtKeyRing ring = fromFile(Paths.get(file));
+            ring.startWatching(Env.getLong("JWT_KEY_RELOAD_MS", 30000));
+            System.out.println("🔑 Loaded JWT key ring from " + file + " (active kid " + ring.activeKid() + ")");
+            return ring;
+        }
+
+        String keys = Env.get("JWT_KEYS", null);
+        if (keys != null) {
+            JwtKeyRing ring = new JwtKeyRing(null, parseEnv(keys, Env.get("JWT_ACTIVE_KID", null)));
+            System.out.println("🔑 Loaded JWT key ring from JWT_KEYS (active kid " + ring.activeKid() + ")");
+            return ring;
+        }
+
+        System.out.println("⚠️ No JWT_KEY_FILE or JWT_KEYS set, using a random key. Tokens won't survive a restart.");
+        Map<String, Key> random = new LinkedHashMap<>();
+        random.put("ephemeral", Keys.secretKeyFor(SignatureAlgorithm.HS512));
+        return new JwtKeyRing(null, new Snapshot("ephemeral", random));
+    }
+
+    /**
+     * Loads the ring from a key file without watching it (reloadIfChanged does the re-read)
+     */
+    public static JwtKeyRing fromFile(Path path) {
+        try {
+            JwtKeyRing ring = new JwtKeyRing(path, loadFile(path));
+            ring.keyFileModified = Files.getLastModifiedTime(path).toMillis();
+            return ring;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load JWT key file " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    public static JwtKeyRing of(String activeKid, Map<String, byte[]> secrets) {
+        Map<String, Key> keys = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> e : secrets.entrySet()) {
+            keys.put(e.getKey(), toKey(e.getKey(), e.getValue()));
+        }
+        return new JwtKeyRing(null, validated(activeKid, keys));
+    }
+
+    public String activeKid() {
+        return snapshot.activeKid;
+    }
+
+    /**
+     * Kid and key for signing a new token. Reading activeKid() and then verificationKey(kid)
+     * could straddle a hot reload that retires the kid; one snapshot read always matches.
+     */
+    public SigningKey signingKey() {
+        Snapshot current = snapshot;
+        return new SigningKey(current.activeKid, current.keys.get(current.activeKid));
+    }
+
+    public Key activeKey() {
+        Snapshot current = snapshot;
+        return current.keys.get(current.activeKid);
+    }
+
+    /**
+     * @return the verification key for this kid, or null if it isn't (or no longer) in the ring
+     */
+    public Key verificationKey(String kid) {
+        return snapshot.keys.get(kid);
+    }
+
+    /**
+     * Called after a successful hot reload (e.g. to drop cached verifications)
+     */
+    public void onReload(Runnable listener) {
+        this.onReload = listener;
+    }
+
+    private void startWatching(long intervalMs) {
+        ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-key-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void reloadIfChanged() {
+        try {
+            long modified = Files.getLastModifiedTime(keyFile).toMillis();
+            if (modified == keyFileModified) {
+                return;
+            }
+            snapshot = loadFile(keyFile);
+            keyFileModified = modified;
+            System.out.println("🔑 Reloaded JWT key ring (active kid " + snapshot.activeKid + ", " + snapshot.keys.size() + " keys)");
+            onReload.run();
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep serving with the previous keys rather than locking everyone out
+            System.err.println("❌ JWT key ring reload failed, keeping previous keys: " + e.getMessage());
+        }
+    }
+
+    private static Snapshot loadFile(Path path) throws IOException {
+        Properties props = new Properties();
+        try (InputStream input = Files.newInputStream(path)) {
+            props.load(input);
+        }
+
+        Map<String, Key> keys = new LinkedHashMap<>();
+        for (String name : props.stringPropertyNames()) {
+            if (name.startsWith("key.")) {
+                String kid = name.substring(4);
+                keys.put(kid, toKey(kid, decode(kid, props.getProperty(name))));
+            }
+        }
+        return validated(props.getProperty("active"), keys);
+    }
+
+    private static Snapshot parseEnv(String value, String activeKid) {
+        Map<String, Key> keys = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("JWT_KEYS entries must look like kid:base64secret");
+            }
+            String kid = entry.substring(0, colon).trim();
+            keys.put(kid, toKey(kid, decode(kid, entry.substring(colon + 1))));
+        }
+        if (activeKid == null && !keys.isEmpty()) {
+            activeKid = keys.keySet().iterator().next();
+        }
+        return validated(activeKid, keys);
+    }
+
+    private static Snapshot validated(String activeKid, Map<String, Key> keys) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("JWT key ring is empty");
+        }
+        if (activeKid == null || !keys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("Active kid '" + activeKid + "' is not in the key ring");
+        }
+        return new Snapshot(activeKid, keys);
+    }
+
+    private static byte[] decode(String kid, String base64) {
+        try {
+            return Base64.getDecoder().decode(base64.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Key '" + kid + "' is not valid base64");
+        }
+    }
+
+    private static Key toKey(String kid, byte[] secret) {
+        if (secret.length < MIN_KEY_BYTES) {
+            throw new IllegalArgumentException("Key '" + kid + "' must be at least " + MIN_KEY_BYTES + " bytes for HS512");
+        }
+        return Keys.hmacShaKeyFor(secret);
+    }
+}
@@ -0,0 +1,119 @@
+package com.yourapp.Security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.yourapp.Env;
+
+/**
+ * Runs password hashing on a small dedicated pool so a burst of logins can
+ * only ever occupy PASSWORD_HASH_THREADS cores. Work beyond the bounded queue
+ * is rejected up front (the caller answers 503) instead of piling up on Jetty threads.
+ */
+public class PasswordHasher {
+
+    /**
+     * Thrown when the hashing pool is saturated or didn't answer in time
+     */
+    public static class BusyException extends RuntimeException {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public PasswordHasher() {
+        this(Env.getInt("PASSWORD_HASH_THREADS", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+                Env.getInt("PASSWORD_HASH_QUEUE", 32),
+                Env.getLong("PASSWORD_HASH_TIMEOUT_MS", 5000));
+    }
+
+    public PasswordHasher(int threads, int queueSize, long timeoutMs) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String hash(String password) {
+        return run(() -> PasswordSecurity.hashPassword(password));
+    }
+
+    public boolean verify(String password, String storedHash) {
+        return run(() -> PasswordSecurity.verifyPassword(password, storedHash));
+    }
+
+    /**
+     * Fire-and-forget work on the hashing pool (e.g. rehash after login).
+     * @return false if the pool is saturated and the task was dropped
+     */
+    public boolean submitBackground(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return false;
+        }
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException("Password hashing queue is full");
+        }
+
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            completed.increment();
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new BusyException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusyException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error hashing password", e.getCause());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("completed", completed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timed_out", timedOut.sum());
+        stats.put("iterations", PasswordSecurity.configuredIterations());
+        return stats;
+    }
+}
@@ -0,0 +1,250 @@
+package com.yourapp.Security;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.yourapp.Database.MigrationRunner;
+import com.yourapp.Db;
+import com.yourapp.Env;
+
+/**
+ * Hashes any plain-text passwords left in the users table, in the background.
+ *
+ * Users are read in id order in chunks of PASSWORD_MIGRATION_CHUNK rows; plain
+ * passwords of a chunk are hashed in parallel, written back with one JDBC batch
+ * and the last processed id is checkpointed in job_checkpoints in the same
+ * transaction, so a restart resumes where the previous run stopped. A connection is
+ * only borrowed to read a chunk and to write it back, never while hashing.
+ *
+ * Until the DB is reachable and migration V001 has created job_checkpoints, the job
+ * waits and checks again every PASSWORD_MIGRATION_RETRY_MS.
+ */
+public class PasswordMigrationJob {
+
+    public enum Status { IDLE, WAITING_FOR_DB, WAITING_FOR_SCHEMA, RUNNING, DONE, FAILED }
+
+    private static final String JOB_NAME = "password_migration";
+
+    private final int chunkSize = Env.getInt("PASSWORD_MIGRATION_CHUNK", 200);
+    private final int threads = Env.getInt("PASSWORD_MIGRATION_THREADS", 2);
+    private final long retryMs = Env.getLong("PASSWORD_MIGRATION_RETRY_MS", 60000);
+
+    private volatile Status status = Status.IDLE;
+    private volatile int lastId = 0;
+    private volatile int maxId = 0;
+    private volatile long scanned = 0;
+    private volatile long migrated = 0;
+    private volatile long startedAt = 0;
+    private volatile long finishedAt = 0;
+    private volatile String error = null;
+
+    private static final class Row {
+        final int id;
+        final String plainPassword;
+        Future<String> hash;
+
+        Row(int id, String plainPassword) {
+            this.id = id;
+            this.plainPassword = plainPassword;
+        }
+    }
+
+    /**
+     * Starts the migration on a daemon thread and returns immediately
+     */
+    public void start() {
+        Thread thread = new Thread(this::run, "password-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        startedAt = System.currentTimeMillis();
+        try {
+            // Startup migrations are skipped while the DB is down, so keep checking instead of giving up
+            while (!ready()) {
+                Thread.sleep(retryMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while waiting for the database");
+            return;
+        }
+
+        status = Status.RUNNING;
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "password-migration-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        try {
+            prepare();
+            System.out.println("🔄 Password migration resuming after user id " + lastId + " (max id " + maxId + ")");
+
+            while (migrateChunk(workers)) {
+                // keep going until a chunk comes back empty
+            }
+
+            status = Status.DONE;
+            finishedAt = System.currentTimeMillis();
+            System.out.println("🎉 Migration complete! Migrated " + migrated + " passwords.");
+        } catch (Exception e) {
+            System.err.println("❌ Error during password migration: " + e.getMessage());
+            e.printStackTrace();
+            fail(e.getMessage());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true once the DB is reachable and job_checkpoints exists; otherwise status and error say why not
+     */
+    private boolean ready() {
+        status = Status.WAITING_FOR_DB;
+        if (!Db.awaitAvailable(Env.getLong("DB_STARTUP_WAIT_MS", 60000))) {
+            error = "Database not reachable";
+        } else {
+            // Created by migration V001, not here, so the schema lives in one place
+            try (Connection conn = Db.getConnection()) {
+                if (MigrationRunner.tableExists(conn, "job_checkpoints")) {
+                    error = null;
+                    return true;
+                }
+                status = Status.WAITING_FOR_SCHEMA;
+                error = "job_checkpoints missing, waiting for migration V001";
+            } catch (SQLException e) {
+                error = e.getMessage();
+            }
+        }
+        System.err.println("⚠️ Password migration waiting: " + error + ", retrying in " + retryMs + " ms");
+        return false;
+    }
+
+    private void prepare() throws SQLException {
+        try (Connection conn = Db.getConnection(); Statement stmt = conn.createStatement()) {
+            PreparedStatement checkpointStmt = conn.prepareStatement("SELECT last_id FROM job_checkpoints WHERE job_name = ?");
+            checkpointStmt.setString(1, JOB_NAME);
+            ResultSet rs = checkpointStmt.executeQuery();
+            lastId = rs.next() ? rs.getInt("last_id") : 0;
+
+            ResultSet maxRs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) AS max_id FROM users");
+            maxId = maxRs.next() ? maxRs.getInt("max_id") : 0;
+        }
+    }
+
+    /**
+     * @return false once there are no users left after the checkpoint
+     */
+    private boolean migrateChunk(ExecutorService workers) throws Exception {
+        List<Row> plain = new ArrayList<>();
+        int chunkLastId = lastId;
+        int rows = 0;
+
+        try (Connection conn = Db.getConnection()) {
+            String selectSql = "SELECT id, password FROM users WHERE id > ? ORDER BY id LIMIT ?";
+            PreparedStatement selectStmt = conn.prepareStatement(selectSql);
+            selectStmt.setFetchSize(chunkSize);
+            selectStmt.setInt(1, lastId);
+            selectStmt.setInt(2, chunkSize);
+            ResultSet rs = selectStmt.executeQuery();
+
+            while (rs.next()) {
+                rows++;
+                chunkLastId = rs.getInt("id");
+                String currentPassword = rs.getString("password");
+
+                // Check if password is already hashed (hashed passwords are much longer)
+                if (currentPassword.length() < 50) {
+                    Row row = new Row(chunkLastId, currentPassword);
+                    row.hash = workers.submit(() -> PasswordSecurity.hashPassword(row.plainPassword));
+                    plain.add(row);
+                }
+            }
+        }
+
+        if (rows == 0) {
+            return false;
+        }
+
+        // PBKDF2 runs with no connection borrowed; the pool is busiest right at startup
+        List<String> hashes = new ArrayList<>();
+        for (Row row : plain) {
+            hashes.add(row.hash.get());
+        }
+
+        try (Connection conn = Db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Only overwrite rows that still hold the plain value we read
+                String updateSql = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+                PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                for (int i = 0; i < plain.size(); i++) {
+                    updateStmt.setString(1, hashes.get(i));
+                    updateStmt.setInt(2, plain.get(i).id);
+                    updateStmt.setString(3, plain.get(i).plainPassword);
+                    updateStmt.addBatch();
+                }
+                if (!plain.isEmpty()) {
+                    updateStmt.executeBatch();
+                }
+
+                String checkpointSql = "INSERT INTO job_checkpoints (job_name, last_id) VALUES (?, ?) "
+                        + "ON DUPLICATE KEY UPDATE last_id = VALUES(last_id)";
+                PreparedStatement checkpointStmt = conn.prepareStatement(checkpointSql);
+                checkpointStmt.setString(1, JOB_NAME);
+                checkpointStmt.setInt(2, chunkLastId);
+                checkpointStmt.executeUpdate();
+
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        lastId = chunkLastId;
+        scanned += rows;
+        migrated += plain.size();
+        if (!plain.isEmpty()) {
+            System.out.println("✅ Migrated " + plain.size() + " passwords (up to user id " + chunkLastId + ")");
+        }
+        return rows == chunkSize;
+    }
+
+    private void fail(String message) {
+        error = message;
+        status = Status.FAILED;
+        finishedAt = System.currentTimeMillis();
+    }
+
+    public Map<String, Object> progress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("status", status.name());
+        progress.put("last_id", lastId);
+        progress.put("max_id", maxId);
+        progress.put("percent", maxId == 0 ? 100 : Math.min(100, Math.round(lastId * 100.0 / maxId)));
+        progress.put("scanned", scanned);
+        progress.put("migrated", migrated);
+        progress.put("started_at", startedAt == 0 ? null : startedAt);
+        progress.put("finished_at", finishedAt == 0 ? null : finishedAt);
+        progress.put("error", error);
+        return progress;
+    }
+}
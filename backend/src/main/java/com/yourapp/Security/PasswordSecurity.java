@@ -1,90 +1,169 @@
 package com.yourapp.Security;
 
 // Add this new class for password security
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
 
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import com.yourapp.Env;
+
 public class PasswordSecurity {
-    
+
+    /*
+     * Stored hash formats:
+     *   v1 (legacy): Base64(salt[16] + SHA-256(salt + password))
+     *   v2:          $v2$<iterations>$<Base64 salt>$<Base64 PBKDF2-HMAC-SHA256 hash>
+     * The iteration count is the cost parameter; hashes with a different cost
+     * than PASSWORD_HASH_ITERATIONS are upgraded on the next successful login.
+     */
+    private static final String V2_PREFIX = "$v2$";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_BITS = 256;
+
+    public static final int DEFAULT_ITERATIONS = 100000;
+    private static final int CONFIGURED_ITERATIONS = Env.getInt("PASSWORD_HASH_ITERATIONS", DEFAULT_ITERATIONS);
+
+    // SecureRandom is thread-safe, seed it once instead of per call
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Per-thread instances, provider lookups are not free and these aren't thread-safe
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    private static final ThreadLocal<SecretKeyFactory> PBKDF2 = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public static int configuredIterations() {
+        return CONFIGURED_ITERATIONS;
+    }
+
     /**
-     * Hashes a password with a random salt using SHA-256
+     * Hashes a password with a random salt using PBKDF2 and the configured cost
      * @param password The plain text password
-     * @return A string containing salt + hash (safe to store in database)
+     * @return A versioned string containing cost + salt + hash (safe to store in database)
      */
     public static String hashPassword(String password) {
+        return hashPassword(password, CONFIGURED_ITERATIONS);
+    }
+
+    public static String hashPassword(String password, int iterations) {
         try {
             // Generate random salt
-            SecureRandom random = new SecureRandom();
-            byte[] salt = new byte[16];
-            random.nextBytes(salt);
-            
-            // Create hash with salt
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(salt);
-            byte[] hashedPassword = md.digest(password.getBytes("UTF-8"));
-            
-            // Combine salt + hash and encode to Base64
-            byte[] saltAndHash = new byte[salt.length + hashedPassword.length];
-            System.arraycopy(salt, 0, saltAndHash, 0, salt.length);
-            System.arraycopy(hashedPassword, 0, saltAndHash, salt.length, hashedPassword.length);
-            
-            return Base64.getEncoder().encodeToString(saltAndHash);
-            
+            byte[] salt = new byte[SALT_LENGTH];
+            RANDOM.nextBytes(salt);
+
+            byte[] hash = pbkdf2(password, salt, iterations);
+
+            Base64.Encoder encoder = Base64.getEncoder();
+            return V2_PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+
         } catch (Exception e) {
             throw new RuntimeException("Error hashing password", e);
         }
     }
-    
+
     /**
-     * Verifies a password against a stored hash
+     * Verifies a password against a stored hash (v2 or legacy v1)
      * @param password The plain text password to verify
      * @param storedHash The stored hash from database
      * @return true if password matches, false otherwise
      */
     public static boolean verifyPassword(String password, String storedHash) {
         try {
-            // Decode the stored hash
-            byte[] saltAndHash = Base64.getDecoder().decode(storedHash);
-            
-            // Extract salt (first 16 bytes)
-            byte[] salt = new byte[16];
-            System.arraycopy(saltAndHash, 0, salt, 0, 16);
-            
-            // Extract stored hash (remaining bytes)
-            byte[] storedPasswordHash = new byte[saltAndHash.length - 16];
-            System.arraycopy(saltAndHash, 16, storedPasswordHash, 0, storedPasswordHash.length);
-            
-            // Hash the provided password with the same salt
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            md.update(salt);
-            byte[] providedPasswordHash = md.digest(password.getBytes("UTF-8"));
-            
-            // Compare hashes
-            return MessageDigest.isEqual(providedPasswordHash, storedPasswordHash);
-            
+            if (storedHash.startsWith(V2_PREFIX)) {
+                String[] parts = storedHash.substring(V2_PREFIX.length()).split("\\$");
+                int iterations = Integer.parseInt(parts[0]);
+                byte[] salt = Base64.getDecoder().decode(parts[1]);
+                byte[] expected = Base64.getDecoder().decode(parts[2]);
+
+                return MessageDigest.isEqual(pbkdf2(password, salt, iterations), expected);
+            }
+
+            return verifyLegacy(password, storedHash);
+
         } catch (Exception e) {
             return false;
         }
     }
-    
+
+    /**
+     * @return true when the stored hash uses the legacy format or a different cost than configured
+     */
+    public static boolean needsRehash(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(V2_PREFIX)) {
+            return true;
+        }
+        int end = storedHash.indexOf('$', V2_PREFIX.length());
+        try {
+            return Integer.parseInt(storedHash.substring(V2_PREFIX.length(), end)) != CONFIGURED_ITERATIONS;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) throws InvalidKeySpecException {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return PBKDF2.get().generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static boolean verifyLegacy(String password, String storedHash) {
+        // Decode the stored hash
+        byte[] saltAndHash = Base64.getDecoder().decode(storedHash);
+
+        // Extract salt (first 16 bytes)
+        byte[] salt = new byte[SALT_LENGTH];
+        System.arraycopy(saltAndHash, 0, salt, 0, SALT_LENGTH);
+
+        // Extract stored hash (remaining bytes)
+        byte[] storedPasswordHash = new byte[saltAndHash.length - SALT_LENGTH];
+        System.arraycopy(saltAndHash, SALT_LENGTH, storedPasswordHash, 0, storedPasswordHash.length);
+
+        // Hash the provided password with the same salt
+        MessageDigest md = SHA256.get();
+        md.reset();
+        md.update(salt);
+        byte[] providedPasswordHash = md.digest(password.getBytes(StandardCharsets.UTF_8));
+
+        // Compare hashes
+        return MessageDigest.isEqual(providedPasswordHash, storedPasswordHash);
+    }
+
     /**
      * Simple test method to verify the implementation works
      */
     public static void testPasswordHashing() {
         String password = "mySecretPassword123";
-        
+
         // Hash the password
         String hashedPassword = hashPassword(password);
         System.out.println("Original: " + password);
         System.out.println("Hashed: " + hashedPassword);
-        
+
         // Verify correct password
         boolean isValid = verifyPassword(password, hashedPassword);
         System.out.println("Verification (correct): " + isValid);
-        
+
         // Verify wrong password
         boolean isInvalid = verifyPassword("wrongPassword", hashedPassword);
         System.out.println("Verification (wrong): " + isInvalid);
     }
-}
\ No newline at end of file
+}
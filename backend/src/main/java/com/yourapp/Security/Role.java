@@ -0,0 +1,11 @@
+package com.yourapp.Security;
+
+import io.javalin.security.RouteRole;
+
+/**
+ * Roles stored in users.role and carried in the JWT "role" claim
+ */
+public enum Role implements RouteRole {
+    USER,
+    ADMIN
+}
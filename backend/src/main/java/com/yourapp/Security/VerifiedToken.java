@@ -0,0 +1,24 @@
+package com.yourapp.Security;
+
+import java.util.Date;
+
+/**
+ * Claims of a JWT whose signature and expiry have been checked
+ */
+public class VerifiedToken {
+    private final String subject;
+    private final String role;
+    private final Date expiresAt;
+
+    public VerifiedToken(String subject, String role, Date expiresAt) {
+        this.subject = subject;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getSubject() { return subject; }
+
+    public String getRole() { return role; }
+
+    public Date getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,164 @@
+package com.yourapp.TimeSlots;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Immutable copy of one time_slots row
+ */
+public class Slot {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final int id;
+    private final LocalDate date;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final boolean booked;
+    private final Integer bookedBy;
+    private final BigDecimal price;
+
+    public Slot(int id, LocalDate date, LocalTime startTime, LocalTime endTime, boolean booked, Integer bookedBy) {
+        this(id, date, startTime, endTime, booked, bookedBy, null);
+    }
+
+    /**
+     * @param price charged on booking, null for slots without a price
+     */
+    public Slot(int id, LocalDate date, LocalTime startTime, LocalTime endTime, boolean booked, Integer bookedBy, BigDecimal price) {
+        this.id = id;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.booked = booked;
+        this.bookedBy = bookedBy;
+        this.price = price;
+    }
+
+    /**
+     * Reads id, date, start_time, end_time, is_booked, booked_by and price from the current row
+     */
+    public static Slot fromRow(ResultSet rs) throws SQLException {
+        return new Slot(
+                rs.getInt("id"),
+                rs.getDate("date").toLocalDate(),
+                LocalTime.parse(rs.getString("start_time")),
+                LocalTime.parse(rs.getString("end_time")),
+                rs.getBoolean("is_booked"),
+                (Integer) rs.getObject("booked_by"),
+                rs.getBigDecimal("price"));
+    }
+
+    public Slot booked(Integer userId) {
+        return new Slot(id, date, startTime, endTime, true, userId, price);
+    }
+
+    public Slot freed() {
+        return new Slot(id, date, startTime, endTime, false, null, price);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public boolean isBooked() {
+        return booked;
+    }
+
+    public Integer getBookedBy() {
+        return bookedBy;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * Same shape the time slot endpoints have always returned
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> slot = new HashMap<>();
+        slot.put("id", id);
+        slot.put("date", date.toString());
+        slot.put("start_time", startTime.format(TIME_FORMAT));
+        slot.put("end_time", endTime.format(TIME_FORMAT));
+        slot.put("is_booked", booked);
+        slot.put("booked_by", bookedBy);
+        slot.put("price", price);
+        return slot;
+    }
+
+    /**
+     * Writes the toMap() fields into an object the caller has already started,
+     * so extra fields can follow before it is closed
+     */
+    public void writeFields(JsonGenerator json) throws IOException {
+        json.writeNumberField("id", id);
+        json.writeStringField("date", date.toString());
+        json.writeStringField("start_time", startTime.format(TIME_FORMAT));
+        json.writeStringField("end_time", endTime.format(TIME_FORMAT));
+        json.writeBooleanField("is_booked", booked);
+        json.writeFieldName("booked_by");
+        if (bookedBy == null) {
+            json.writeNull();
+        } else {
+            json.writeNumber(bookedBy);
+        }
+        json.writeFieldName("price");
+        if (price == null) {
+            json.writeNull();
+        } else {
+            json.writeNumber(price);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Slot)) {
+            return false;
+        }
+        Slot other = (Slot) o;
+        return id == other.id
+                && booked == other.booked
+                && date.equals(other.date)
+                && startTime.equals(other.startTime)
+                && endTime.equals(other.endTime)
+                && Objects.equals(bookedBy, other.bookedBy)
+                && (price == null ? other.price == null : other.price != null && price.compareTo(other.price) == 0);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, date, startTime, endTime, booked, bookedBy);
+    }
+
+    @Override
+    public String toString() {
+        return "Slot{" + id + " " + date + " " + startTime + "-" + endTime + (booked ? " booked by " + bookedBy : " free") + "}";
+    }
+}
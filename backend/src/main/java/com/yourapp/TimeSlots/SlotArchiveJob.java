@@ -0,0 +1,176 @@
+package com.yourapp.TimeSlots;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.yourapp.Database.MigrationRunner;
+import com.yourapp.Db;
+import com.yourapp.Env;
+
+/**
+ * Moves slots older than SLOT_ARCHIVE_AFTER_DAYS from time_slots into
+ * time_slots_archive, so the hot table only holds recent and upcoming slots.
+ *
+ * Runs every SLOT_ARCHIVE_INTERVAL_MS. Each chunk of SLOT_ARCHIVE_CHUNK rows is
+ * copied and deleted in its own short transaction, so a run never holds locks on
+ * more than one chunk and a crash leaves every slot in exactly one of the tables.
+ * Past slots are outside the SlotIndex window, so the index is not affected.
+ */
+public class SlotArchiveJob {
+
+    public static final String ARCHIVE_TABLE = "time_slots_archive";
+
+    private static final String COLUMNS = "id, date, start_time, end_time, is_booked, booked_by, price";
+
+    private final int afterDays = Env.getInt("SLOT_ARCHIVE_AFTER_DAYS", 30);
+    private final int chunkSize = Env.getInt("SLOT_ARCHIVE_CHUNK", 500);
+    private final long intervalMs = Env.getLong("SLOT_ARCHIVE_INTERVAL_MS", 6 * 60 * 60 * 1000L);
+
+    private volatile boolean tableReady = false;
+    private volatile long archived = 0;
+    private volatile long runs = 0;
+    private volatile long lastRunAt = 0;
+    private volatile int lastRunArchived = 0;
+    private volatile String error = null;
+
+    /**
+     * Schedules the runs on a daemon thread
+     */
+    public void start() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slot-archive");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (!tableReady) {
+                    if (!Db.awaitAvailable(Env.getLong("DB_STARTUP_WAIT_MS", 60000))) {
+                        return;
+                    }
+                    prepare();
+                    if (!tableReady) {
+                        return;
+                    }
+                }
+                run();
+            } catch (Exception e) {
+                error = e.getMessage();
+                System.err.println("❌ Slot archive failed: " + e.getMessage());
+            }
+        }, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void prepare() throws SQLException {
+        // The table comes from migration V004; until it has run there is nothing to archive into
+        try (Connection conn = Db.getConnection()) {
+            tableReady = MigrationRunner.tableExists(conn, ARCHIVE_TABLE);
+        }
+        if (!tableReady) {
+            error = ARCHIVE_TABLE + " missing, waiting for migration V004";
+            System.err.println("⚠️ Slot archive skipped: " + error);
+        }
+    }
+
+    /**
+     * Archives everything past the retention window, one chunk per transaction
+     *
+     * @return number of slots moved
+     */
+    public synchronized int run() throws SQLException {
+        LocalDate cutoff = LocalDate.now().minusDays(afterDays);
+        int moved = 0;
+        int chunk;
+        do {
+            chunk = archiveChunk(cutoff);
+            moved += chunk;
+        } while (chunk == chunkSize);
+
+        runs++;
+        lastRunAt = System.currentTimeMillis();
+        lastRunArchived = moved;
+        archived += moved;
+        error = null;
+        if (moved > 0) {
+            System.out.println("📦 Archived " + moved + " time slots from before " + cutoff);
+        }
+        return moved;
+    }
+
+    private int archiveChunk(LocalDate cutoff) throws SQLException {
+        try (Connection conn = Db.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Lock the chunk first so a late unbook/delete can't slip in between copy and delete
+                String selectSql = "SELECT id FROM time_slots WHERE date < ? ORDER BY date, id LIMIT ? FOR UPDATE";
+                PreparedStatement selectStmt = conn.prepareStatement(selectSql);
+                selectStmt.setDate(1, Date.valueOf(cutoff));
+                selectStmt.setInt(2, chunkSize);
+                ResultSet rs = selectStmt.executeQuery();
+
+                List<Integer> ids = new ArrayList<>();
+                while (rs.next()) {
+                    ids.add(rs.getInt("id"));
+                }
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+
+                String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+                PreparedStatement copyStmt = conn.prepareStatement(
+                        "INSERT INTO " + ARCHIVE_TABLE + " (" + COLUMNS + ") " +
+                        "SELECT " + COLUMNS + " FROM time_slots WHERE id IN (" + placeholders + ")");
+                PreparedStatement deleteStmt = conn.prepareStatement(
+                        "DELETE FROM time_slots WHERE id IN (" + placeholders + ")");
+                for (int i = 0; i < ids.size(); i++) {
+                    copyStmt.setInt(i + 1, ids.get(i));
+                    deleteStmt.setInt(i + 1, ids.get(i));
+                }
+                copyStmt.executeUpdate();
+                deleteStmt.executeUpdate();
+
+                conn.commit();
+                return ids.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Whether reads may include the archive table (checked when the job starts, see migration V004)
+     */
+    public boolean isTableReady() {
+        return tableReady;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("table_ready", tableReady);
+        stats.put("after_days", afterDays);
+        stats.put("runs", runs);
+        stats.put("archived", archived);
+        stats.put("last_run_archived", lastRunArchived);
+        stats.put("last_run_at", lastRunAt == 0 ? null : lastRunAt);
+        stats.put("error", error);
+        return stats;
+    }
+}
@@ -0,0 +1,136 @@
+package com.yourapp.TimeSlots;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Free/booked counts per day and per starting hour for the admin calendar, instead
+ * of shipping every slot with its booked-by user to count them in the browser.
+ * Filled from SlotIndex when it covers the range, otherwise with one grouped query.
+ */
+public class SlotCalendar {
+
+    public static final int MAX_RANGE_DAYS = 366;
+
+    private static final class Counts {
+        int total;
+        int booked;
+        final int[] hourTotal = new int[24];
+        final int[] hourBooked = new int[24];
+    }
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final TreeMap<LocalDate, Counts> days = new TreeMap<>();
+
+    public SlotCalendar(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public void add(LocalDate date, int hour, int total, int booked) {
+        Counts day = days.computeIfAbsent(date, d -> new Counts());
+        day.total += total;
+        day.booked += booked;
+        day.hourTotal[hour] += total;
+        day.hourBooked[hour] += booked;
+    }
+
+    public void add(Slot slot) {
+        add(slot.getDate(), slot.getStartTime().getHour(), 1, slot.isBooked() ? 1 : 0);
+    }
+
+    /**
+     * Same counts straight from the DB, one row per (date, hour)
+     *
+     * @param withArchive also counts slots SlotArchiveJob has moved to the archive table
+     */
+    public static SlotCalendar query(Connection conn, LocalDate from, LocalDate to, boolean withArchive) throws SQLException {
+        String range = "WHERE date >= ? AND date <= ?";
+        String rows = withArchive
+                ? "(SELECT date, start_time, is_booked FROM time_slots " + range + " " +
+                  "UNION ALL " +
+                  "SELECT date, start_time, is_booked FROM " + SlotArchiveJob.ARCHIVE_TABLE + " " + range + ") ts "
+                : "time_slots ts " + range + " ";
+        String sql = "SELECT date, HOUR(start_time) AS hour, COUNT(*) AS total, SUM(is_booked) AS booked " +
+                    "FROM " + rows +
+                    "GROUP BY date, HOUR(start_time)";
+
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        stmt.setDate(1, Date.valueOf(from));
+        stmt.setDate(2, Date.valueOf(to));
+        if (withArchive) {
+            stmt.setDate(3, Date.valueOf(from));
+            stmt.setDate(4, Date.valueOf(to));
+        }
+        ResultSet rs = stmt.executeQuery();
+
+        SlotCalendar calendar = new SlotCalendar(from, to);
+        while (rs.next()) {
+            calendar.add(rs.getDate("date").toLocalDate(), rs.getInt("hour"), rs.getInt("total"), rs.getInt("booked"));
+        }
+        return calendar;
+    }
+
+    /**
+     * Response body; days without slots are left out
+     *
+     * @param withHours adds the per-hour breakdown to each day
+     */
+    public Map<String, Object> toMap(boolean withHours) {
+        List<Map<String, Object>> dayList = new ArrayList<>();
+        int total = 0;
+        int booked = 0;
+
+        for (Map.Entry<LocalDate, Counts> entry : days.entrySet()) {
+            Counts counts = entry.getValue();
+            Map<String, Object> day = new LinkedHashMap<>();
+            day.put("date", entry.getKey().toString());
+            putCounts(day, counts.total, counts.booked);
+
+            if (withHours) {
+                List<Map<String, Object>> hours = new ArrayList<>();
+                for (int hour = 0; hour < 24; hour++) {
+                    if (counts.hourTotal[hour] > 0) {
+                        Map<String, Object> slotHour = new LinkedHashMap<>();
+                        slotHour.put("hour", hour);
+                        putCounts(slotHour, counts.hourTotal[hour], counts.hourBooked[hour]);
+                        hours.add(slotHour);
+                    }
+                }
+                day.put("hours", hours);
+            }
+
+            dayList.add(day);
+            total += counts.total;
+            booked += counts.booked;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        putCounts(result, total, booked);
+        result.put("days", dayList);
+        return result;
+    }
+
+    private static void putCounts(Map<String, Object> target, int total, int booked) {
+        target.put("total", total);
+        target.put("booked", booked);
+        target.put("free", total - booked);
+        target.put("utilization", total == 0
+                ? BigDecimal.ZERO
+                : BigDecimal.valueOf(booked).divide(BigDecimal.valueOf(total), 3, RoundingMode.HALF_UP));
+    }
+}
@@ -0,0 +1,59 @@
+package com.yourapp.TimeSlots;
+
+/**
+ * A committed change to one time slot, published by the handlers after the write succeeded
+ */
+public class SlotChange {
+
+    public enum Type { CREATED, BOOKED, FREED, DELETED }
+
+    private final Type type;
+    private final int slotId;
+    private final Slot slot;
+    private final Integer userId;
+
+    private SlotChange(Type type, int slotId, Slot slot, Integer userId) {
+        this.type = type;
+        this.slotId = slotId;
+        this.slot = slot;
+        this.userId = userId;
+    }
+
+    public static SlotChange created(Slot slot) {
+        return new SlotChange(Type.CREATED, slot.getId(), slot, null);
+    }
+
+    public static SlotChange booked(int slotId, int userId) {
+        return new SlotChange(Type.BOOKED, slotId, null, userId);
+    }
+
+    public static SlotChange freed(int slotId) {
+        return new SlotChange(Type.FREED, slotId, null, null);
+    }
+
+    public static SlotChange deleted(int slotId) {
+        return new SlotChange(Type.DELETED, slotId, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getSlotId() {
+        return slotId;
+    }
+
+    /**
+     * @return the full row for CREATED, null for the other types
+     */
+    public Slot getSlot() {
+        return slot;
+    }
+
+    /**
+     * @return the booking user for BOOKED, null for the other types
+     */
+    public Integer getUserId() {
+        return userId;
+    }
+}
@@ -0,0 +1,50 @@
+package com.yourapp.TimeSlots;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out of committed slot changes to in-process subscribers (availability index, ...).
+ * Handlers publish after their transaction committed; listeners run on the request thread
+ * and must not block.
+ *
+ * version() increases after every change has been applied by all listeners, so a
+ * response built after reading the version is never older than that version.
+ */
+public class SlotEvents {
+
+    public interface Listener {
+        void onSlotChange(SlotChange change);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void publish(SlotChange change) {
+        for (Listener listener : listeners) {
+            try {
+                listener.onSlotChange(change);
+            } catch (RuntimeException e) {
+                // One broken subscriber must not fail a booking that is already committed
+                System.err.println("❌ Slot change listener failed: " + e.getMessage());
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Bumps the version for changes that didn't come through publish (e.g. found by a reconcile)
+     */
+    public void touch() {
+        version.incrementAndGet();
+    }
+
+    public long version() {
+        return version.get();
+    }
+}
@@ -0,0 +1,371 @@
+package com.yourapp.TimeSlots;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import com.yourapp.Db;
+import com.yourapp.Env;
+
+/**
+ * In-memory copy of the upcoming time slots (today .. today + SLOT_INDEX_DAYS), grouped
+ * by date and sorted by start time, so /api/time-slots/free never touches MySQL.
+ *
+ * Kept current write-through from SlotEvents and reloaded from the DB every
+ * SLOT_INDEX_RECONCILE_MS to pick up anything changed outside the handlers. A reload
+ * that raced with a handler write is thrown away and retried rather than risk
+ * overwriting the newer state with an older snapshot.
+ */
+public class SlotIndex implements SlotEvents.Listener {
+
+    private static final Comparator<Slot> BY_START = Comparator.comparing(Slot::getStartTime).thenComparingInt(Slot::getId);
+    private static final int RECONCILE_ATTEMPTS = 3;
+
+    private static final String SLOT_COLUMNS = "SELECT id, date, start_time, end_time, is_booked, booked_by, price FROM time_slots ";
+
+    private final int horizonDays = Env.getInt("SLOT_INDEX_DAYS", 90);
+    private final long reconcileMs = Env.getLong("SLOT_INDEX_RECONCILE_MS", 60000);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Everything below up to `ready` is guarded by lock
+    private final Map<Integer, Slot> byId = new HashMap<>();
+    private final TreeMap<LocalDate, TreeSet<Slot>> byDate = new TreeMap<>();
+    private LocalDate coveredFrom;
+    private LocalDate coveredTo;
+    private long mutations = 0;
+    private volatile boolean ready = false;
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong reconciles = new AtomicLong();
+    private final AtomicLong reconcileSkipped = new AtomicLong();
+    private volatile int lastDrift = 0;
+    private volatile long lastReconcileAt = 0;
+    private volatile Runnable onDrift = () -> { };
+
+    /**
+     * Loads the index in the background and keeps reconciling it; until the first
+     * load succeeds free() returns null and callers query the DB.
+     */
+    public void start() {
+        ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slot-index-reconcile");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                boolean wasReady = ready;
+                reconcile();
+                if (!wasReady && ready) {
+                    System.out.println("📅 Slot index ready (" + stats().get("slots") + " upcoming slots)");
+                }
+            } catch (Exception e) {
+                System.err.println("❌ Slot index reconcile failed: " + e.getMessage());
+            }
+        }, 0, reconcileMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reloads the covered window from the DB.
+     *
+     * @return number of slots that differed from the index, or -1 if every attempt raced with a write
+     */
+    public int reconcile() throws SQLException {
+        for (int attempt = 0; attempt < RECONCILE_ATTEMPTS; attempt++) {
+            long before = mutationCount();
+            LocalDate from = LocalDate.now();
+            LocalDate to = from.plusDays(horizonDays);
+
+            List<Slot> rows;
+            try (Connection conn = Db.getConnection()) {
+                rows = querySlots(conn, from, to, false);
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (mutations == before) {
+                    int drift = replace(rows, from, to);
+                    reconciles.incrementAndGet();
+                    lastDrift = drift;
+                    lastReconcileAt = System.currentTimeMillis();
+                    if (drift > 0) {
+                        System.out.println("🔄 Slot index reconciled, " + drift + " slots were out of date");
+                        onDrift.run();
+                    }
+                    return drift;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        reconcileSkipped.incrementAndGet();
+        return -1;
+    }
+
+    /**
+     * Called when a reconcile finds slots changed outside the handlers (another node, manual SQL)
+     */
+    public void onDrift(Runnable listener) {
+        this.onDrift = listener;
+    }
+
+    private long mutationCount() {
+        lock.readLock().lock();
+        try {
+            return mutations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Swaps in a fresh snapshot of [from, to]
+     *
+     * @return how many slots in the window differed from the previous snapshot
+     */
+    int replace(Collection<Slot> rows, LocalDate from, LocalDate to) {
+        lock.writeLock().lock();
+        try {
+            int drift = 0;
+            if (ready) {
+                Map<Integer, Slot> fresh = new HashMap<>();
+                for (Slot slot : rows) {
+                    fresh.put(slot.getId(), slot);
+                    if (!slot.equals(byId.get(slot.getId()))) {
+                        drift++;
+                    }
+                }
+                for (Slot old : byId.values()) {
+                    if (!old.getDate().isBefore(from) && !fresh.containsKey(old.getId())) {
+                        drift++;
+                    }
+                }
+            }
+
+            byId.clear();
+            byDate.clear();
+            for (Slot slot : rows) {
+                add(slot);
+            }
+            coveredFrom = from;
+            coveredTo = to;
+            ready = true;
+            return drift;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSlotChange(SlotChange change) {
+        lock.writeLock().lock();
+        try {
+            mutations++;
+            Slot current = byId.get(change.getSlotId());
+            switch (change.getType()) {
+                case CREATED:
+                    Slot created = change.getSlot();
+                    if (coveredFrom != null && !created.getDate().isBefore(coveredFrom) && !created.getDate().isAfter(coveredTo)) {
+                        add(created);
+                    }
+                    break;
+                case BOOKED:
+                    if (current != null) {
+                        remove(current);
+                        add(current.booked(change.getUserId()));
+                    }
+                    break;
+                case FREED:
+                    if (current != null) {
+                        remove(current);
+                        add(current.freed());
+                    }
+                    break;
+                case DELETED:
+                    if (current != null) {
+                        remove(current);
+                    }
+                    break;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Slot slot) {
+        byId.put(slot.getId(), slot);
+        byDate.computeIfAbsent(slot.getDate(), date -> new TreeSet<>(BY_START)).add(slot);
+    }
+
+    private void remove(Slot slot) {
+        byId.remove(slot.getId());
+        TreeSet<Slot> day = byDate.get(slot.getDate());
+        if (day != null) {
+            day.remove(slot);
+            if (day.isEmpty()) {
+                byDate.remove(slot.getDate());
+            }
+        }
+    }
+
+    /**
+     * Free slots between from and to (inclusive), ordered by date and start time.
+     *
+     * @return null if the index isn't loaded yet or doesn't cover the range; query the DB instead
+     */
+    public List<Slot> free(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            if (!ready || from.isBefore(coveredFrom) || to.isAfter(coveredTo)) {
+                fallbacks.incrementAndGet();
+                return null;
+            }
+            List<Slot> free = new ArrayList<>();
+            if (to.isBefore(from)) {
+                // e.g. ?days=-1; subMap would throw, the SQL just matches nothing
+                served.incrementAndGet();
+                return free;
+            }
+            for (TreeSet<Slot> day : byDate.subMap(from, true, to, true).values()) {
+                for (Slot slot : day) {
+                    if (!slot.isBooked()) {
+                        free.add(slot);
+                    }
+                }
+            }
+            served.incrementAndGet();
+            return free;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Free/booked counts between from and to (inclusive).
+     *
+     * @return null if the index isn't loaded yet or doesn't cover the range; use SlotCalendar.query instead
+     */
+    public SlotCalendar calendar(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            if (!ready || from.isBefore(coveredFrom) || to.isAfter(coveredTo)) {
+                fallbacks.incrementAndGet();
+                return null;
+            }
+            SlotCalendar calendar = new SlotCalendar(from, to);
+            if (to.isBefore(from)) {
+                served.incrementAndGet();
+                return calendar;
+            }
+            for (TreeSet<Slot> day : byDate.subMap(from, true, to, true).values()) {
+                for (Slot slot : day) {
+                    calendar.add(slot);
+                }
+            }
+            served.incrementAndGet();
+            return calendar;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the indexed slot, or null if it is outside the window (or not loaded yet)
+     */
+    public Slot get(int slotId) {
+        lock.readLock().lock();
+        try {
+            return byId.get(slotId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Slots between from and to (inclusive) straight from the DB, same order as free()
+     */
+    public static List<Slot> querySlots(Connection conn, LocalDate from, LocalDate to, boolean freeOnly) throws SQLException {
+        String sql = SLOT_COLUMNS +
+                    "WHERE date >= ? AND date <= ? " +
+                    (freeOnly ? "AND is_booked = false " : "") +
+                    "ORDER BY date ASC, start_time ASC, id ASC";
+
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        stmt.setDate(1, Date.valueOf(from));
+        stmt.setDate(2, Date.valueOf(to));
+        ResultSet rs = stmt.executeQuery();
+
+        List<Slot> slots = new ArrayList<>();
+        while (rs.next()) {
+            slots.add(Slot.fromRow(rs));
+        }
+        return slots;
+    }
+
+    /**
+     * Compares free() with the SQL result for the same range
+     */
+    public Map<String, Object> check(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        List<Slot> fromDb = querySlots(conn, from, to, true);
+        List<Slot> fromIndex = free(from, to);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("db_count", fromDb.size());
+        if (fromIndex == null) {
+            result.put("consistent", null);
+            result.put("index_count", null);
+            return result;
+        }
+
+        Set<Slot> indexSet = new HashSet<>(fromIndex);
+        Set<Slot> dbSet = new HashSet<>(fromDb);
+        result.put("consistent", indexSet.equals(dbSet) && fromIndex.size() == fromDb.size());
+        result.put("index_count", fromIndex.size());
+        result.put("missing_from_index", fromDb.stream().filter(s -> !indexSet.contains(s)).map(Slot::getId).collect(Collectors.toList()));
+        result.put("stale_in_index", fromIndex.stream().filter(s -> !dbSet.contains(s)).map(Slot::getId).collect(Collectors.toList()));
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("ready", ready);
+            stats.put("slots", byId.size());
+            stats.put("covered_from", coveredFrom == null ? null : coveredFrom.toString());
+            stats.put("covered_to", coveredTo == null ? null : coveredTo.toString());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("served", served.get());
+        stats.put("fallbacks", fallbacks.get());
+        stats.put("reconciles", reconciles.get());
+        stats.put("reconcile_skipped", reconcileSkipped.get());
+        stats.put("last_drift", lastDrift);
+        stats.put("last_reconcile_at", lastReconcileAt == 0 ? null : lastReconcileAt);
+        return stats;
+    }
+}
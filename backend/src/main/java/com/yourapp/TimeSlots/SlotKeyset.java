@@ -0,0 +1,82 @@
+package com.yourapp.TimeSlots;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+import com.yourapp.Database.PageCursor;
+
+/**
+ * Keyset pagination over time slots in (date, start_time, id) order, ascending or
+ * (for history, newest first) descending
+ */
+public class SlotKeyset {
+
+    /**
+     * Rows strictly after the cursor row, spelled out (instead of a row constructor) so
+     * MySQL can range-scan an index on (date, start_time)
+     */
+    public static String after(String alias) {
+        String p = alias.isEmpty() ? "" : alias + ".";
+        return "(" + p + "date > ? OR (" + p + "date = ? AND (" + p + "start_time > ? OR (" + p + "start_time = ? AND " + p + "id > ?))))";
+    }
+
+    /**
+     * Rows strictly before the cursor row, for pages in orderByDesc() order; same placeholders as after()
+     */
+    public static String before(String alias) {
+        String p = alias.isEmpty() ? "" : alias + ".";
+        return "(" + p + "date < ? OR (" + p + "date = ? AND (" + p + "start_time < ? OR (" + p + "start_time = ? AND " + p + "id < ?))))";
+    }
+
+    public static String orderBy(String alias) {
+        String p = alias.isEmpty() ? "" : alias + ".";
+        return "ORDER BY " + p + "date ASC, " + p + "start_time ASC, " + p + "id ASC";
+    }
+
+    public static String orderByDesc(String alias) {
+        String p = alias.isEmpty() ? "" : alias + ".";
+        return "ORDER BY " + p + "date DESC, " + p + "start_time DESC, " + p + "id DESC";
+    }
+
+    public static String encode(Slot slot) {
+        return PageCursor.encode(slot.getDate(), slot.getStartTime().toString(), slot.getId());
+    }
+
+    /**
+     * @return null for the first page
+     * @throws IllegalArgumentException for a malformed token
+     */
+    public static Object[] decode(String token) {
+        String[] parts = PageCursor.decode(token, 3);
+        if (parts == null) {
+            return null;
+        }
+        try {
+            return new Object[] {
+                    Date.valueOf(LocalDate.parse(parts[0])),
+                    LocalTime.parse(parts[1]).toString(),
+                    Integer.parseInt(parts[2])
+            };
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Neispravan cursor");
+        }
+    }
+
+    /**
+     * Binds the five placeholders of after() or before() starting at index
+     *
+     * @return the next free parameter index
+     */
+    public static int bind(PreparedStatement stmt, int index, Object[] cursor) throws SQLException {
+        stmt.setDate(index++, (Date) cursor[0]);
+        stmt.setDate(index++, (Date) cursor[0]);
+        stmt.setString(index++, (String) cursor[1]);
+        stmt.setString(index++, (String) cursor[1]);
+        stmt.setInt(index++, (Integer) cursor[2]);
+        return index;
+    }
+}
@@ -0,0 +1,280 @@
+package com.yourapp.TimeSlots;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yourapp.Dto.Json;
+import com.yourapp.Env;
+
+import org.eclipse.jetty.server.Request;
+
+import io.javalin.http.sse.SseClient;
+
+/**
+ * Server-Sent Events feed of slot changes for /api/time-slots/events.
+ *
+ * Each change is serialized once and queued on every connection's bounded queue
+ * (SSE_CLIENT_QUEUE); a small sender pool drains the queues, one writer per
+ * connection at a time and a limited batch per turn, so connections share the
+ * senders fairly. A connection whose queue overflows is evicted, so a slow client
+ * can never hold up the request thread that published the change. Writes block, so
+ * a watchdog aborts the connection under any write stuck for longer than
+ * SSE_WRITE_TIMEOUT_MS; the write fails and the sender is free for the others.
+ * Only the sender that owns a connection's drain closes its SseClient.
+ * A comment heartbeat every SSE_HEARTBEAT_MS keeps proxies from closing idle streams.
+ *
+ * Events: ready (on connect, refetch /free), slot-created, slot-booked, slot-freed,
+ * slot-deleted. Who booked a slot is never broadcast.
+ */
+public class SlotStream implements SlotEvents.Listener, Consumer<SseClient> {
+
+    // The app's shared mapper, with the writer built once for every event
+    private static final ObjectWriter WRITER = Json.MAPPER.writerFor(Map.class);
+
+    // Messages one drain writes before giving the sender to the next connection
+    private static final int DRAIN_BATCH = 64;
+
+    private final int queueSize;
+    private final long writeTimeoutMs;
+    private final int maxClients = Env.getInt("SSE_MAX_CLIENTS", 1000);
+    private final long heartbeatMs = Env.getLong("SSE_HEARTBEAT_MS", 15000);
+
+    private final SlotIndex slotIndex;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final AtomicLong eventIds = new AtomicLong();
+
+    private final AtomicLong connected = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    private static final class Message {
+        final String event;
+        final String data;
+        final String id;
+
+        Message(String event, String data, String id) {
+            this.event = event;
+            this.data = data;
+            this.id = id;
+        }
+    }
+
+    private final class Subscriber {
+        final SseClient client;
+        final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(queueSize);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean aborted = new AtomicBoolean();
+        volatile boolean closed = false;
+        // Start of the write in progress, 0 between writes
+        volatile long writingSince = 0;
+
+        Subscriber(SseClient client) {
+            this.client = client;
+        }
+
+        void offer(Message message) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(message)) {
+                evict("queue full");
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void drain() {
+            try {
+                Message message;
+                int sent = 0;
+                while (!closed && sent < DRAIN_BATCH && (message = queue.poll()) != null) {
+                    writingSince = System.currentTimeMillis();
+                    try {
+                        if (message.event == null) {
+                            client.sendComment(message.data);
+                        } else {
+                            client.sendEvent(message.event, message.data, message.id);
+                        }
+                    } finally {
+                        writingSince = 0;
+                    }
+                    if (client.terminated()) {
+                        remove();
+                        return;
+                    }
+                    sent++;
+                }
+                if (closed) {
+                    // Evicted from another thread; closing here can't race a write on this client
+                    client.close();
+                }
+            } finally {
+                draining.set(false);
+                if (closed ? !client.terminated() : !queue.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        /**
+         * Stops delivery; safe from any thread, the drain does the actual close
+         */
+        void evict(String reason) {
+            if (!closed) {
+                closed = true;
+                evicted.incrementAndGet();
+                System.out.println("✂️ Dropping slow SSE client (" + reason + ")");
+                queue.clear();
+                scheduleDrain();
+            }
+        }
+
+        /**
+         * Fails a write that has been blocked too long (the client stopped reading). Aborting
+         * the HTTP channel makes the blocked write throw, which hands the sender back.
+         */
+        void abortStuckWrite(long now) {
+            long since = writingSince;
+            if (since != 0 && now - since > writeTimeoutMs && aborted.compareAndSet(false, true)) {
+                evict("write blocked for " + (now - since) + " ms");
+                Request.getBaseRequest(client.ctx().req()).getHttpChannel()
+                        .abort(new TimeoutException("SSE write blocked for " + (now - since) + " ms"));
+            }
+        }
+
+        void remove() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+        }
+    }
+
+    public SlotStream(SlotIndex slotIndex) {
+        this(slotIndex, Env.getInt("SSE_SENDER_THREADS", 4), Env.getInt("SSE_CLIENT_QUEUE", 256),
+                Env.getLong("SSE_WRITE_TIMEOUT_MS", 5000));
+    }
+
+    SlotStream(SlotIndex slotIndex, int senderThreads, int queueSize, long writeTimeoutMs) {
+        this.slotIndex = slotIndex;
+        this.queueSize = queueSize;
+        this.writeTimeoutMs = writeTimeoutMs;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        long watchdogMs = Math.max(10, writeTimeoutMs / 4);
+        heartbeat.scheduleWithFixedDelay(this::watchdog, watchdogMs, watchdogMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * SSE handler: registers the connection and keeps it open until the client leaves or is evicted
+     */
+    @Override
+    public void accept(SseClient client) {
+        if (subscribers.size() >= maxClients) {
+            // Headers are already flushed at this point, closing is all we can do
+            rejected.incrementAndGet();
+            client.close();
+            return;
+        }
+
+        Subscriber subscriber = new Subscriber(client);
+        client.keepAlive();
+        client.onClose(subscriber::remove);
+        subscribers.add(subscriber);
+        connected.incrementAndGet();
+
+        // Anything missed while disconnected isn't replayed; the client refetches on "ready"
+        subscriber.offer(new Message("ready", "{}", null));
+    }
+
+    @Override
+    public void onSlotChange(SlotChange change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("slot_id", change.getSlotId());
+        // The index has already applied the change (it subscribed first)
+        Slot slot = change.getSlot() != null ? change.getSlot() : slotIndex.get(change.getSlotId());
+        if (slot != null && change.getType() != SlotChange.Type.DELETED) {
+            Map<String, Object> details = slot.toMap();
+            details.remove("booked_by");
+            data.put("slot", details);
+        }
+
+        String json;
+        try {
+            json = WRITER.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            System.err.println("❌ Could not serialize slot event: " + e.getMessage());
+            return;
+        }
+
+        Message message = new Message("slot-" + change.getType().name().toLowerCase(Locale.ROOT), json,
+                String.valueOf(eventIds.incrementAndGet()));
+        published.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+    }
+
+    private void heartbeat() {
+        Message ping = new Message(null, "ping", null);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(ping);
+        }
+    }
+
+    private void watchdog() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.abortStuckWrite(now);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("clients", subscribers.size());
+        stats.put("connected_total", connected.get());
+        stats.put("rejected", rejected.get());
+        stats.put("evicted", evicted.get());
+        stats.put("events_published", published.get());
+        return stats;
+    }
+}
@@ -0,0 +1,126 @@
+package com.yourapp.TimeSlots;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A recurring block of lessons, e.g. Mon/Wed 16:00-20:00 in 60 minute slots from
+ * 2025-09-01 to 2025-12-20 except holidays. Request body for POST /api/time-slots/bulk
+ * (read through SlotTemplateDto):
+ *
+ *   {"from": "2025-09-01", "to": "2025-12-20", "days": ["MON", "WED"],
+ *    "start_time": "16:00", "end_time": "20:00", "slot_minutes": 60,
+ *    "exclude_dates": ["2025-11-01"], "price": 20.00}
+ */
+public class SlotTemplate {
+
+    public static final int MAX_RANGE_DAYS = 366;
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Set<DayOfWeek> days;
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+    private final int slotMinutes;
+    private final Set<LocalDate> excludeDates;
+    private final BigDecimal price;
+
+    public SlotTemplate(LocalDate from, LocalDate to, Set<DayOfWeek> days, LocalTime startTime, LocalTime endTime,
+                        int slotMinutes, Set<LocalDate> excludeDates, BigDecimal price) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Datum 'to' mora biti nakon datuma 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Raspon može biti najviše " + MAX_RANGE_DAYS + " dana");
+        }
+        if (days.isEmpty()) {
+            throw new IllegalArgumentException("Odaberite barem jedan dan u tjednu");
+        }
+        if (price != null && price.signum() < 0) {
+            throw new IllegalArgumentException("Cijena ne može biti negativna");
+        }
+        if (slotMinutes <= 0) {
+            throw new IllegalArgumentException("Trajanje termina mora biti pozitivno");
+        }
+        if (!startTime.plusMinutes(slotMinutes).isAfter(startTime) || startTime.plusMinutes(slotMinutes).isAfter(endTime)) {
+            throw new IllegalArgumentException("Vrijeme završetka mora biti barem jedan termin nakon početka");
+        }
+        this.from = from;
+        this.to = to;
+        this.days = days;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.slotMinutes = slotMinutes;
+        this.excludeDates = excludeDates;
+        this.price = price;
+    }
+
+    /**
+     * Optional slot price from a JSON number or string; null means the slot is free of charge
+     */
+    public static BigDecimal parsePrice(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(String.valueOf(value)).setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Neispravna cijena");
+        }
+    }
+
+    /**
+     * Accepts MONDAY, MON or 1 (ISO, Monday = 1)
+     */
+    public static DayOfWeek parseDay(String value) {
+        String day = value.trim().toUpperCase(Locale.ROOT);
+        if (day.matches("[1-7]")) {
+            return DayOfWeek.of(Integer.parseInt(day));
+        }
+        if (day.length() >= 3) {
+            for (DayOfWeek candidate : DayOfWeek.values()) {
+                if (candidate.name().startsWith(day)) {
+                    return candidate;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Nepoznat dan u tjednu: " + value);
+    }
+
+    /**
+     * All slots of the template in date and start time order (ids are 0, not inserted yet)
+     */
+    public List<Slot> expand() {
+        List<Slot> slots = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!days.contains(date.getDayOfWeek()) || excludeDates.contains(date)) {
+                continue;
+            }
+            LocalTime start = startTime;
+            LocalTime end = start.plusMinutes(slotMinutes);
+            // end > start guards against running past midnight
+            while (end.isAfter(start) && !end.isAfter(endTime)) {
+                slots.add(new Slot(0, date, start, end, false, null, price));
+                start = end;
+                end = start.plusMinutes(slotMinutes);
+            }
+        }
+        return slots;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+}
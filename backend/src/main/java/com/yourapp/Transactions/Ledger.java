@@ -0,0 +1,143 @@
+package com.yourapp.Transactions;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.yourapp.Env;
+import com.yourapp.Dto.TransactionCreateDto;
+
+/**
+ * Balance movements: a transactions row plus the matching change to users.balance,
+ * always on the caller's connection so they commit or roll back with the rest of
+ * the caller's transaction (e.g. a booking).
+ *
+ * The balance is changed relative to its current value (balance = balance - ?), so
+ * concurrent movements for the same user can't overwrite each other: InnoDB locks
+ * the row for the UPDATE and each one applies its delta on top of the last committed
+ * value. Amounts are BigDecimal end to end and DECIMAL in the schema.
+ *
+ * A NULL balance counts as 0, as it always did when it was read with getDouble: V005
+ * backfills and forbids NULLs, but a schema it hasn't run on (MIGRATIONS_ENABLED=false)
+ * would otherwise turn NULL - amount into NULL and lose the movement.
+ */
+public class Ledger {
+
+    public static final String ADD = "ADD";
+    public static final String SUBTRACT = "SUBTRACT";
+
+    // Off by default: balances have always been allowed to go negative
+    private static final boolean REQUIRE_FUNDS = Env.getBoolean("BOOKING_REQUIRE_FUNDS", false);
+
+    public static class InsufficientFundsException extends Exception {
+        public InsufficientFundsException() {
+            super("Nedovoljno sredstava na računu");
+        }
+    }
+
+    /**
+     * Debits a booking charge.
+     *
+     * @throws InsufficientFundsException if BOOKING_REQUIRE_FUNDS is set and the balance is too low
+     */
+    public static void charge(Connection conn, int userId, BigDecimal amount, String description)
+            throws SQLException, InsufficientFundsException {
+        String updateSql = "UPDATE users SET balance = COALESCE(balance, 0) - ? WHERE id = ?" + (REQUIRE_FUNDS ? " AND COALESCE(balance, 0) >= ?" : "");
+        PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+        updateStmt.setBigDecimal(1, amount);
+        updateStmt.setInt(2, userId);
+        if (REQUIRE_FUNDS) {
+            updateStmt.setBigDecimal(3, amount);
+        }
+        if (updateStmt.executeUpdate() == 0) {
+            throw new InsufficientFundsException();
+        }
+        record(conn, userId, amount, SUBTRACT, description);
+    }
+
+    /**
+     * Credits a refund (or any other addition)
+     */
+    public static void credit(Connection conn, int userId, BigDecimal amount, String description) throws SQLException {
+        adjust(conn, userId, amount);
+        record(conn, userId, amount, ADD, description);
+    }
+
+    /**
+     * Manual ADD/SUBTRACT by an admin; the balance may go negative.
+     *
+     * @return false if the user doesn't exist (nothing was written)
+     */
+    public static boolean post(Connection conn, int userId, String type, BigDecimal amount, String description) throws SQLException {
+        if (!adjust(conn, userId, SUBTRACT.equals(type) ? amount.negate() : amount)) {
+            return false;
+        }
+        record(conn, userId, amount, type, description);
+        return true;
+    }
+
+    /**
+     * Applies many ADD/SUBTRACT postings with two batched statements: one multi-row
+     * INSERT for the ledger rows and one UPDATE per user with that user's summed delta.
+     * Users are updated in id order, so two imports touching the same students lock
+     * their rows in the same order instead of deadlocking.
+     *
+     * @throws SQLException if a user no longer exists; roll back the caller's transaction
+     */
+    public static void postAll(Connection conn, List<TransactionCreateDto> postings) throws SQLException {
+        Map<Integer, BigDecimal> deltas = new TreeMap<>();
+        for (TransactionCreateDto posting : postings) {
+            BigDecimal amount = posting.getAmount();
+            deltas.merge(posting.getUserId(), SUBTRACT.equals(posting.getTransactionType()) ? amount.negate() : amount, BigDecimal::add);
+        }
+
+        String updateSql = "UPDATE users SET balance = COALESCE(balance, 0) + ? WHERE id = ?";
+        PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+        for (Map.Entry<Integer, BigDecimal> delta : deltas.entrySet()) {
+            updateStmt.setBigDecimal(1, delta.getValue());
+            updateStmt.setInt(2, delta.getKey());
+            updateStmt.addBatch();
+        }
+        int[] updated = updateStmt.executeBatch();
+        int i = 0;
+        for (Integer userId : deltas.keySet()) {
+            if (updated[i++] == 0) {
+                throw new SQLException("Korisnik " + userId + " nije pronađen");
+            }
+        }
+
+        // rewriteBatchedStatements turns the batch into one multi-row INSERT
+        String insertSql = "INSERT INTO transactions (user_id, amount, transaction_type, description) VALUES (?, ?, ?, ?)";
+        PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+        for (TransactionCreateDto posting : postings) {
+            insertStmt.setInt(1, posting.getUserId());
+            insertStmt.setBigDecimal(2, posting.getAmount());
+            insertStmt.setString(3, posting.getTransactionType());
+            insertStmt.setString(4, posting.getDescription());
+            insertStmt.addBatch();
+        }
+        insertStmt.executeBatch();
+    }
+
+    private static boolean adjust(Connection conn, int userId, BigDecimal delta) throws SQLException {
+        String updateSql = "UPDATE users SET balance = COALESCE(balance, 0) + ? WHERE id = ?";
+        PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+        updateStmt.setBigDecimal(1, delta);
+        updateStmt.setInt(2, userId);
+        return updateStmt.executeUpdate() > 0;
+    }
+
+    private static void record(Connection conn, int userId, BigDecimal amount, String type, String description) throws SQLException {
+        String insertSql = "INSERT INTO transactions (user_id, amount, transaction_type, description) VALUES (?, ?, ?, ?)";
+        PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+        insertStmt.setInt(1, userId);
+        insertStmt.setBigDecimal(2, amount);
+        insertStmt.setString(3, type);
+        insertStmt.setString(4, description);
+        insertStmt.executeUpdate();
+    }
+}
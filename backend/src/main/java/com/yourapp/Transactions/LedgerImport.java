@@ -0,0 +1,334 @@
+package com.yourapp.Transactions;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.yourapp.Dto.Json;
+import com.yourapp.Dto.TransactionCreateDto;
+
+/**
+ * Rows of a bulk transaction import (POST /api/transactions/bulk), parsed from a JSON
+ * array or a CSV file one row at a time. The parsed rows are kept in a list (up to
+ * TRANSACTION_BULK_MAX, default 10000), because every row is validated before
+ * anything is written.
+ *
+ * Validation uses the same rules as /api/transactions/create; a row that fails keeps
+ * its error and the import is refused as a whole, so a typo in row 180 doesn't leave
+ * 179 students charged. Valid imports are then written in chunks of
+ * TRANSACTION_BULK_CHUNK; if a chunk fails, the ones before it stay committed and the
+ * response is a 207 with per-row statuses.
+ *
+ * CSV columns are user_id, transaction_type, amount, description. A header row is
+ * optional and may reorder them (type is accepted for transaction_type). The
+ * delimiter is ',' or ';' (what Excel writes in a Croatian locale), picked from the
+ * first line; with ';' the amount may use a decimal comma.
+ */
+public class LedgerImport {
+
+    public static final String VALID = "valid";
+    public static final String INVALID = "invalid";
+    public static final String APPLIED = "applied";
+    public static final String FAILED = "failed";
+    public static final String NOT_APPLIED = "not_applied";
+
+    private static final List<String> COLUMNS = Arrays.asList("user_id", "transaction_type", "amount", "description");
+
+    public static class Row {
+        private final int number;
+        private final TransactionCreateDto posting;
+        private String status;
+        private String error;
+
+        Row(int number, TransactionCreateDto posting, String error) {
+            this.number = number;
+            this.posting = posting;
+            this.status = error == null ? VALID : INVALID;
+            this.error = error;
+        }
+
+        /**
+         * 1-based position among the data rows (the CSV header doesn't count)
+         */
+        public int getNumber() {
+            return number;
+        }
+
+        /**
+         * @return the validated posting, null if the row is invalid
+         */
+        public TransactionCreateDto getPosting() {
+            return posting;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        void reject(String error) {
+            this.status = INVALID;
+            this.error = error;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("row", number);
+            map.put("status", status);
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * Reads a JSON array of /api/transactions/create bodies element by element.
+     *
+     * @throws IllegalArgumentException if the document itself is malformed or has more than maxRows rows
+     */
+    public static List<Row> readJson(InputStream in, int maxRows) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (JsonParser parser = Json.MAPPER.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Očekuje se JSON niz transakcija");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Neispravan JSON");
+                }
+                checkLimit(rows, maxRows);
+                int number = rows.size() + 1;
+                // One element at a time as a small tree, so a bad row doesn't derail the parser
+                try {
+                    rows.add(new Row(number, Json.read(parser.<JsonNode>readValueAsTree(),
+                            TransactionCreateDto.class), null));
+                } catch (IllegalArgumentException e) {
+                    rows.add(new Row(number, null, e.getMessage()));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Neispravan JSON");
+        }
+        return rows;
+    }
+
+    /**
+     * Reads CSV rows, see the class comment for the format.
+     *
+     * @throws IllegalArgumentException if the file has more than maxRows rows or an unknown header column
+     */
+    public static List<Row> readCsv(Reader in, int maxRows) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        List<Row> rows = new ArrayList<>();
+
+        String first = reader.readLine();
+        if (first == null) {
+            return rows;
+        }
+        // Byte order mark from Excel's "CSV UTF-8"
+        if (first.startsWith("\uFEFF")) {
+            first = first.substring(1);
+        }
+        char delimiter = count(first, ';') > count(first, ',') ? ';' : ',';
+
+        List<String> record = parseRecord(first, reader, delimiter);
+        int[] positions = {0, 1, 2, 3};
+        if (!record.isEmpty() && !record.get(0).trim().matches("\\d+")) {
+            positions = headerPositions(record);
+            record = null;
+        }
+
+        while (true) {
+            if (record == null) {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                record = parseRecord(line, reader, delimiter);
+            }
+            if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                record = null;
+                continue;
+            }
+            checkLimit(rows, maxRows);
+            rows.add(toRow(rows.size() + 1, record, positions, delimiter));
+            record = null;
+        }
+        return rows;
+    }
+
+    private static int[] headerPositions(List<String> header) {
+        int[] positions = {-1, -1, -1, -1};
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase();
+            int column = COLUMNS.indexOf("type".equals(name) ? "transaction_type" : name);
+            if (column < 0) {
+                throw new IllegalArgumentException("Nepoznata kolona '" + header.get(i).trim() + "'");
+            }
+            positions[column] = i;
+        }
+        return positions;
+    }
+
+    private static Row toRow(int number, List<String> record, int[] positions, char delimiter) {
+        String[] values = new String[COLUMNS.size()];
+        for (int column = 0; column < values.length; column++) {
+            int position = positions[column];
+            values[column] = position >= 0 && position < record.size() ? record.get(position).trim() : null;
+        }
+        try {
+            Integer userId;
+            BigDecimal amount;
+            try {
+                userId = values[0] == null || values[0].isEmpty() ? null : Integer.valueOf(values[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Neispravan format polja 'user_id'");
+            }
+            try {
+                String raw = values[2];
+                if (raw != null && delimiter == ';') {
+                    raw = raw.replace(',', '.');
+                }
+                amount = raw == null || raw.isEmpty() ? null : new BigDecimal(raw);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Neispravan format polja 'amount'");
+            }
+            String type = values[1] == null || values[1].isEmpty() ? null : values[1].toUpperCase();
+            return new Row(number, new TransactionCreateDto(userId, type, amount, values[3]), null);
+        } catch (IllegalArgumentException e) {
+            return new Row(number, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Splits one record; a quoted field may contain the delimiter, "" and line breaks
+     */
+    static List<String> parseRecord(String line, BufferedReader reader, char delimiter) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String next = reader.readLine();
+                if (next == null) {
+                    throw new IllegalArgumentException("Neispravan CSV: nezatvoreni navodnici");
+                }
+                field.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static int count(String line, char c) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void checkLimit(List<Row> rows, int maxRows) {
+        if (rows.size() >= maxRows) {
+            throw new IllegalArgumentException("Previše transakcija u jednom zahtjevu (najviše " + maxRows + ")");
+        }
+    }
+
+    /**
+     * Marks rows whose user doesn't exist, looking the ids up IN (...) chunk by chunk
+     */
+    public static void checkUsers(Connection conn, List<Row> rows, int chunkSize) throws SQLException {
+        Set<Integer> wanted = new TreeSet<>();
+        for (Row row : rows) {
+            if (row.getPosting() != null) {
+                wanted.add(row.getPosting().getUserId());
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>(wanted);
+        Set<Integer> found = new HashSet<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            List<Integer> chunk = ids.subList(i, Math.min(i + chunkSize, ids.size()));
+            String sql = "SELECT id FROM users WHERE id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            for (int j = 0; j < chunk.size(); j++) {
+                stmt.setInt(j + 1, chunk.get(j));
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                found.add(rs.getInt("id"));
+            }
+        }
+
+        for (Row row : rows) {
+            if (row.getPosting() != null && !found.contains(row.getPosting().getUserId())) {
+                row.reject("Korisnik nije pronađen");
+            }
+        }
+    }
+
+    public static int count(List<Row> rows, String status) {
+        int count = 0;
+        for (Row row : rows) {
+            if (status.equals(row.getStatus())) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,186 @@
+package com.yourapp.Transactions;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.yourapp.Database.PageCursor;
+import com.yourapp.Dto.TransactionDto;
+
+import io.javalin.http.Context;
+
+/**
+ * Filters and keyset position for a page of the ledger, newest first in
+ * (created_at, id) order:
+ *
+ *   ?user_id=  ?type=ADD|SUBTRACT  ?min_amount=  ?max_amount=
+ *   ?from=YYYY-MM-DD  ?to=YYYY-MM-DD (inclusive)  ?limit=  ?cursor=
+ *
+ * User and type each have an index on (column, created_at, id), so together with
+ * the date range and the cursor they are one range scan read in index order.
+ * The amount range is checked on the rows that scan reads; an index on amount
+ * couldn't also give the created_at order.
+ */
+public class TransactionFilter {
+
+    private final Integer userId;
+    private final String type;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Timestamp afterCreatedAt;
+    private final Integer afterId;
+    private final int limit;
+
+    TransactionFilter(Integer userId, String type, BigDecimal minAmount, BigDecimal maxAmount,
+                      LocalDate from, LocalDate to, String cursor, int limit) {
+        if (type != null && !Ledger.ADD.equals(type) && !Ledger.SUBTRACT.equals(type)) {
+            throw new IllegalArgumentException("Neispravna vrsta transakcije. Mora biti ADD ili SUBTRACT");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new IllegalArgumentException("Minimalni iznos je veći od maksimalnog");
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Datum 'from' je nakon datuma 'to'");
+        }
+        this.userId = userId;
+        this.type = type;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.from = from;
+        this.to = to;
+        this.limit = limit;
+
+        String[] parts = PageCursor.decode(cursor, 2);
+        if (parts == null) {
+            this.afterCreatedAt = null;
+            this.afterId = null;
+        } else {
+            try {
+                this.afterCreatedAt = Timestamp.valueOf(LocalDateTime.parse(parts[0]));
+                this.afterId = Integer.parseInt(parts[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Neispravan cursor");
+            }
+        }
+    }
+
+    /**
+     * Reads the query parameters; userId comes from the path for a single user's history.
+     *
+     * @throws IllegalArgumentException with a message fit for a 400 response
+     */
+    public static TransactionFilter fromQuery(Context ctx, Integer userId) {
+        if (userId == null) {
+            userId = parseParam(ctx, "user_id", Integer::valueOf);
+        }
+        String type = ctx.queryParam("type");
+        return new TransactionFilter(
+                userId,
+                type == null || type.trim().isEmpty() ? null : type.trim().toUpperCase(),
+                parseParam(ctx, "min_amount", BigDecimal::new),
+                parseParam(ctx, "max_amount", BigDecimal::new),
+                parseParam(ctx, "from", LocalDate::parse),
+                parseParam(ctx, "to", LocalDate::parse),
+                ctx.queryParam("cursor"),
+                PageCursor.pageSize(ctx.queryParam("limit")));
+    }
+
+    private interface Parser<T> {
+        T parse(String value);
+    }
+
+    private static <T> T parseParam(Context ctx, String name, Parser<T> parser) {
+        String value = ctx.queryParam(name);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return parser.parse(value.trim());
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Neispravna vrijednost parametra '" + name + "'");
+        }
+    }
+
+    /**
+     * "WHERE ..." over the given alias (empty string for none), or "" when nothing is filtered
+     */
+    public String where(String alias) {
+        String p = alias.isEmpty() ? "" : alias + ".";
+        List<String> conditions = new ArrayList<>();
+        if (userId != null) {
+            conditions.add(p + "user_id = ?");
+        }
+        if (type != null) {
+            conditions.add(p + "transaction_type = ?");
+        }
+        if (minAmount != null) {
+            conditions.add(p + "amount >= ?");
+        }
+        if (maxAmount != null) {
+            conditions.add(p + "amount <= ?");
+        }
+        if (from != null) {
+            conditions.add(p + "created_at >= ?");
+        }
+        if (to != null) {
+            conditions.add(p + "created_at < ?");
+        }
+        if (afterCreatedAt != null) {
+            // Spelled out instead of a row constructor so MySQL range-scans the index
+            conditions.add("(" + p + "created_at < ? OR (" + p + "created_at = ? AND " + p + "id < ?))");
+        }
+        return conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions) + " ";
+    }
+
+    public static String orderBy(String alias) {
+        String p = alias.isEmpty() ? "" : alias + ".";
+        return "ORDER BY " + p + "created_at DESC, " + p + "id DESC ";
+    }
+
+    /**
+     * Binds the placeholders of where() and the LIMIT after it (one extra row, see JsonStream.writePage)
+     */
+    public void bind(PreparedStatement stmt) throws SQLException {
+        int index = 1;
+        if (userId != null) {
+            stmt.setInt(index++, userId);
+        }
+        if (type != null) {
+            stmt.setString(index++, type);
+        }
+        if (minAmount != null) {
+            stmt.setBigDecimal(index++, minAmount);
+        }
+        if (maxAmount != null) {
+            stmt.setBigDecimal(index++, maxAmount);
+        }
+        if (from != null) {
+            stmt.setTimestamp(index++, Timestamp.valueOf(from.atStartOfDay()));
+        }
+        if (to != null) {
+            stmt.setTimestamp(index++, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        }
+        if (afterCreatedAt != null) {
+            stmt.setTimestamp(index++, afterCreatedAt);
+            stmt.setTimestamp(index++, afterCreatedAt);
+            stmt.setInt(index++, afterId);
+        }
+        stmt.setInt(index, limit + 1);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public static String encode(TransactionDto transaction) {
+        return PageCursor.encode(transaction.getCreatedAt(), transaction.getId());
+    }
+}
@@ -0,0 +1,7 @@
+-- Resume points for background jobs (password migration)
+CREATE TABLE IF NOT EXISTS `job_checkpoints` (
+  `job_name` varchar(64) NOT NULL,
+  `last_id` int NOT NULL,
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`job_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,3 @@
+-- Optional slot price, charged on booking
+-- @skip-if-column-exists time_slots price
+ALTER TABLE `time_slots` ADD COLUMN `price` decimal(10,2) DEFAULT NULL, ALGORITHM=INSTANT;
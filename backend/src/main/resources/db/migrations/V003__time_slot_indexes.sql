@@ -0,0 +1,10 @@
+-- Range scans for free slots and per-user history; built online so bookings keep working
+-- @skip-if-index-exists time_slots idx_time_slots_free_date
+ALTER TABLE `time_slots` ADD INDEX `idx_time_slots_free_date` (`is_booked`, `date`, `start_time`), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- @skip-if-index-exists time_slots idx_time_slots_booked_date
+ALTER TABLE `time_slots` ADD INDEX `idx_time_slots_booked_date` (`booked_by`, `date`), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- The foreign key uses idx_time_slots_booked_date from now on
+-- @skip-if-index-missing time_slots booked_by
+ALTER TABLE `time_slots` DROP INDEX `booked_by`, ALGORITHM=INPLACE, LOCK=NONE;
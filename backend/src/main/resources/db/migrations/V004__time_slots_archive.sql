@@ -0,0 +1,13 @@
+-- Past slots moved out of time_slots by SlotArchiveJob
+CREATE TABLE IF NOT EXISTS `time_slots_archive` (
+  `id` int NOT NULL,
+  `date` date NOT NULL,
+  `start_time` time NOT NULL,
+  `end_time` time NOT NULL,
+  `is_booked` tinyint(1) DEFAULT '0',
+  `booked_by` int DEFAULT NULL,
+  `price` decimal(10,2) DEFAULT NULL,
+  `archived_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  KEY `idx_archive_booked_by_date` (`booked_by`, `date`, `start_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,9 @@
+-- Money as exact decimals instead of double. A type change copies the table (no
+-- online algorithm for it in MySQL), which is fine at this size; both statements
+-- are safe to re-run.
+-- balance = balance + ? would turn a NULL balance into NULL forever, make it 0 first
+UPDATE `users` SET `balance` = 0 WHERE `balance` IS NULL;
+
+ALTER TABLE `users` MODIFY `balance` decimal(12,2) NOT NULL DEFAULT '0.00';
+
+ALTER TABLE `transactions` MODIFY `amount` decimal(12,2) NOT NULL;
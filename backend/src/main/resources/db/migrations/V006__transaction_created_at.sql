@@ -0,0 +1,20 @@
+-- When each ledger row was posted, for time filters and keyset paging on (created_at, id).
+-- Rows from before this migration get the time it ran; their real time was never stored.
+-- Adding a column with a CURRENT_TIMESTAMP default rebuilds the table, online so posting keeps working
+-- @skip-if-column-exists transactions created_at
+ALTER TABLE `transactions` ADD COLUMN `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP, ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Whole ledger, newest first, optionally within a date range
+-- @skip-if-index-exists transactions idx_transactions_created
+ALTER TABLE `transactions` ADD INDEX `idx_transactions_created` (`created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- One user's history (and the foreign key from now on)
+-- @skip-if-index-exists transactions idx_transactions_user_created
+ALTER TABLE `transactions` ADD INDEX `idx_transactions_user_created` (`user_id`, `created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Filtering by ADD / SUBTRACT
+-- @skip-if-index-exists transactions idx_transactions_type_created
+ALTER TABLE `transactions` ADD INDEX `idx_transactions_type_created` (`transaction_type`, `created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE;
+
+-- @skip-if-index-missing transactions user_id
+ALTER TABLE `transactions` DROP INDEX `user_id`, ALGORITHM=INPLACE, LOCK=NONE;
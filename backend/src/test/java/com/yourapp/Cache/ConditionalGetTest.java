@@ -0,0 +1,38 @@
+package com.yourapp.Cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ConditionalGetTest {
+
+    @Test
+    public void matchesWeakStrongListsAndWildcard() {
+        String etag = "W/\"abc-7-1f\"";
+
+        assertTrue(ConditionalGet.matches("W/\"abc-7-1f\"", etag));
+        assertTrue(ConditionalGet.matches("\"abc-7-1f\"", etag));
+        assertTrue(ConditionalGet.matches("W/\"abc-6-1f\", W/\"abc-7-1f\"", etag));
+        assertTrue(ConditionalGet.matches("*", etag));
+    }
+
+    @Test
+    public void doesNotMatchOtherVersionsOrMissingHeader() {
+        String etag = "W/\"abc-7-1f\"";
+
+        assertFalse(ConditionalGet.matches(null, etag));
+        assertFalse(ConditionalGet.matches("W/\"abc-6-1f\"", etag));
+        assertFalse(ConditionalGet.matches("W/\"xyz-7-1f\"", etag));
+    }
+
+    @Test
+    public void scopeHashIsSixtyFourBitsAndKeepsValuesApart() {
+        assertEquals(16, ConditionalGet.scopeHash("ana@example.com", 20, null).length());
+        assertEquals(ConditionalGet.scopeHash("ana@example.com", 20, null), ConditionalGet.scopeHash("ana@example.com", 20, null));
+        assertNotEquals(ConditionalGet.scopeHash("ab", "c"), ConditionalGet.scopeHash("a", "bc"));
+        assertNotEquals(ConditionalGet.scopeHash("null"), ConditionalGet.scopeHash((Object) null));
+    }
+}
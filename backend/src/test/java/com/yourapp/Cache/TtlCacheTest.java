@@ -0,0 +1,52 @@
+package com.yourapp.Cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class TtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        TtlCache<String, Integer> cache = new TtlCache<>(2, 60000, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    public void expiresEntries() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 500, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2, 5000);
+
+        now.addAndGet(500);
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.get("b"));
+
+        now.set(5000);
+        assertNull(cache.get("b"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidatesByValue() {
+        TtlCache<String, Integer> cache = new TtlCache<>(10, 60000, now::get);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.invalidateIf((key, value) -> value == 2);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+}
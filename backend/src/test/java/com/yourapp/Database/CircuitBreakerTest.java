@@ -0,0 +1,65 @@
+package com.yourapp.Database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(2, 1000, 8000, now::get);
+
+    private void advanceMs(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    public void opensAfterThresholdAndFailsFast() {
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void halfOpenLetsExactlyOneProbeThrough() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        advanceMs(1000);
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedProbeReopensWithLongerBackoff() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        advanceMs(1000);
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        // Second trip waits between 1000 and 2000 ms (jittered half of a doubled window)
+        long retryAfter = breaker.retryAfterMs();
+        assertTrue(retryAfter >= 1000 && retryAfter <= 2000, "retry after " + retryAfter);
+        advanceMs(999);
+        assertFalse(breaker.allowRequest());
+        advanceMs(1001);
+        assertTrue(breaker.allowRequest());
+    }
+}
@@ -0,0 +1,109 @@
+package com.yourapp.Database;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yourapp.TimeSlots.Slot;
+
+/**
+ * Allocation per list response: the old List<Map> + ObjectMapper path against
+ * writing each slot straight through a JsonGenerator, as JsonStream does.
+ * Compare gc.alloc.rate.norm (bytes per operation) from the GC profiler.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat cp.txt) com.yourapp.Database.JsonStreamBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class JsonStreamBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"200", "10000"})
+    public int rows;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonFactory factory = new JsonFactory();
+    private List<Slot> slots;
+
+    @Setup
+    public void setUp() {
+        slots = new ArrayList<>();
+        LocalDate date = LocalDate.of(2030, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            LocalTime start = LocalTime.of(8 + i % 12, 0);
+            slots.add(new Slot(i + 1, date.plusDays(i / 12), start, start.plusHours(1),
+                    i % 3 == 0, i % 3 == 0 ? 42 : null, new BigDecimal("20.00")));
+        }
+    }
+
+    @Benchmark
+    public void mapList() throws IOException {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Slot slot : slots) {
+            list.add(slot.toMap());
+        }
+        mapper.writeValue(DISCARD, list);
+    }
+
+    @Benchmark
+    public void generator() throws IOException {
+        try (JsonGenerator json = factory.createGenerator(DISCARD)) {
+            json.writeStartArray();
+            for (Slot slot : slots) {
+                json.writeStartObject();
+                slot.writeFields(json);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JsonStreamBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
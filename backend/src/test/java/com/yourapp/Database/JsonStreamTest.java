@@ -0,0 +1,101 @@
+package com.yourapp.Database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+public class JsonStreamTest {
+
+    private Javalin app;
+
+    @BeforeEach
+    public void setUp() {
+        app = Javalin.create(config -> config.showJavalinBanner = false);
+        // Same shape as the handlers in App: catch, then report unless the stream was cut
+        app.get("/rows/{failAt}", ctx -> {
+            int failAt = Integer.parseInt(ctx.pathParam("failAt"));
+            try {
+                JsonStream.writeArray(ctx, IntStream.range(0, 100000).boxed().collect(Collectors.toList()), (json, i) -> {
+                    if (i == failAt) {
+                        throw new IllegalStateException("row " + i);
+                    }
+                    json.writeString("row number " + i);
+                });
+            } catch (Exception e) {
+                fail(ctx);
+            }
+        });
+        app.start(0);
+    }
+
+    private static void fail(Context ctx) {
+        if (!JsonStream.isAborted(ctx)) {
+            ctx.status(500).result("Server error");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    @Test
+    public void failureBeforeAnythingIsSentIsAPlain500() throws IOException {
+        HttpURLConnection conn = open("/rows/3");
+        assertEquals(500, conn.getResponseCode());
+        assertEquals("Server error", read(conn.getErrorStream()));
+    }
+
+    @Test
+    public void failureAfterTheBodyStartedNeverLooksLikeACompleteList() throws IOException {
+        HttpURLConnection conn = open("/rows/50000");
+        assertEquals(200, conn.getResponseCode());
+        // Either the read breaks off, or whatever arrived is not a closed JSON array
+        try {
+            String body = read(conn.getInputStream());
+            assertFalse(body.endsWith("]"), "truncated list was closed");
+        } catch (IOException expected) {
+            // connection aborted mid-body
+        }
+    }
+
+    @Test
+    public void completeStreamsAreUnaffected() throws IOException {
+        HttpURLConnection conn = open("/rows/-1");
+        assertEquals(200, conn.getResponseCode());
+        String body = read(conn.getInputStream());
+        assertEquals("[\"row number 0\",", body.substring(0, 16));
+        assertEquals("\"row number 99999\"]", body.substring(body.length() - 19));
+        assertThrows(IOException.class, () -> open("/rows/1").getInputStream());
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://localhost:" + app.port() + path).openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package com.yourapp.Database;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class MigrationTest {
+
+    @Test
+    public void splitsStatementsAndAttachesDirectives() {
+        String sql = "-- comment\n"
+                + "CREATE TABLE IF NOT EXISTS a (\n  id int\n);\n"
+                + "\n"
+                + "-- @skip-if-index-exists a idx_a\n"
+                + "ALTER TABLE a ADD INDEX idx_a (id), ALGORITHM=INPLACE, LOCK=NONE;\n";
+
+        List<Migration.Statement> statements = Migration.parse(sql);
+
+        assertEquals(2, statements.size());
+        assertEquals("CREATE TABLE IF NOT EXISTS a (\n  id int\n)", statements.get(0).getSql());
+        assertEquals(0, statements.get(0).getConditions().size());
+        assertArrayEquals(new String[] {"skip-if-index-exists", "a", "idx_a"}, statements.get(1).getConditions().get(0));
+    }
+
+    @Test
+    public void checksumIgnoresLineEndingsButNotContent() {
+        assertEquals(Migration.checksum("SELECT 1;\nSELECT 2;\n"), Migration.checksum("SELECT 1;\r\nSELECT 2;\r\n"));
+        assertFalse(Migration.checksum("SELECT 1;").equals(Migration.checksum("SELECT 2;")));
+
+        assertThrows(IllegalArgumentException.class, () -> Migration.parse("SELECT 1"));
+        assertThrows(IllegalArgumentException.class, () -> new Migration("add_index.sql", "SELECT 1;"));
+    }
+
+    @Test
+    public void bundledMigrationsLoadInOrder() throws Exception {
+        List<Migration> migrations = MigrationRunner.load();
+
+        assertEquals("V001", migrations.get(0).getVersion());
+        assertEquals("job checkpoints", migrations.get(0).getDescription());
+        for (Migration migration : migrations) {
+            assertFalse(migration.getStatements().isEmpty(), migration.getVersion());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.yourapp.Dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class JsonTest {
+
+    private static byte[] body(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void readsTypedBodiesIgnoringUnknownFields() {
+        TransactionCreateDto command = Json.read(body(
+                "{\"user_id\": \"7\", \"transaction_type\": \"ADD\", \"amount\": 12.5, \"description\": \"Uplata\", \"extra\": 1}"),
+                TransactionCreateDto.class);
+
+        assertEquals(7, command.getUserId());
+        assertEquals(0, new BigDecimal("12.5").compareTo(command.getAmount()));
+
+        BookSlotsDto book = Json.read(body("{\"slot_ids\": [5, 3, 5]}"), BookSlotsDto.class);
+        assertEquals(Arrays.asList(3, 5), Arrays.asList(book.getSlotIds().toArray()));
+    }
+
+    @Test
+    public void surfacesValidationMessagesFromTheConstructor() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> Json.read(body("{\"user_id\": 7, \"transaction_type\": \"ADD\"}"), TransactionCreateDto.class));
+        assertEquals("Nedostaju potrebna polja", missing.getMessage());
+
+        IllegalArgumentException negative = assertThrows(IllegalArgumentException.class,
+                () -> Json.read(body("{\"date\": \"2030-01-01\", \"start_time\": \"10:00\", \"end_time\": \"11:00\", \"price\": -1}"),
+                        SlotCreateDto.class));
+        assertEquals("Cijena ne može biti negativna", negative.getMessage());
+    }
+
+    @Test
+    public void rejectsMalformedInput() {
+        IllegalArgumentException badNumber = assertThrows(IllegalArgumentException.class,
+                () -> Json.read(body("{\"slot_ids\": [\"abc\"]}"), BookSlotsDto.class));
+        assertTrue(badNumber.getMessage().contains("slot_ids"));
+
+        assertThrows(IllegalArgumentException.class, () -> Json.read(body("{not json"), LoginDto.class));
+        assertThrows(IllegalArgumentException.class, () -> Json.read(new byte[0], LoginDto.class));
+    }
+
+    @Test
+    public void readsSlotTemplatesWithTypedFields() {
+        SlotTemplateDto template = Json.read(body("{\"from\": \"2030-09-02\", \"to\": \"2030-09-08\", \"days\": [\"MON\", 3], "
+                + "\"start_time\": \"16:00\", \"end_time\": \"18:00\", \"price\": \"20\"}"), SlotTemplateDto.class);
+        // slot_minutes defaults to 60: Monday and Wednesday, two slots each
+        assertEquals(4, template.getTemplate().expand().size());
+
+        IllegalArgumentException badMinutes = assertThrows(IllegalArgumentException.class,
+                () -> Json.read(body("{\"from\": \"2030-09-02\", \"to\": \"2030-09-08\", \"days\": [\"MON\"], "
+                        + "\"start_time\": \"16:00\", \"end_time\": \"18:00\", \"slot_minutes\": \"sat\"}"), SlotTemplateDto.class));
+        assertEquals("Neispravan format polja 'slot_minutes'", badMinutes.getMessage());
+    }
+}
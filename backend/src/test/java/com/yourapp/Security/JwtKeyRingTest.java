@@ -0,0 +1,100 @@
+package com.yourapp.Security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Base64;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JwtKeyRingTest {
+
+    @TempDir
+    Path dir;
+
+    private static String secret(char fill) {
+        byte[] bytes = new byte[64];
+        java.util.Arrays.fill(bytes, (byte) fill);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private void writeKeys(Path file, String content, long modifiedMs) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMs));
+    }
+
+    @Test
+    public void tokensFromAnotherNodeWithTheSameKeysVerify() {
+        byte[] shared = Base64.getDecoder().decode(secret('a'));
+        JWTTokenProvider nodeA = new JWTTokenProvider(JwtKeyRing.of("k1", Collections.singletonMap("k1", shared)));
+        JWTTokenProvider nodeB = new JWTTokenProvider(JwtKeyRing.of("k1", Collections.singletonMap("k1", shared)));
+
+        VerifiedToken verified = nodeB.verify(nodeA.generateToken("ana@example.com", "USER"));
+
+        assertNotNull(verified);
+        assertEquals("ana@example.com", verified.getSubject());
+        assertEquals("USER", verified.getRole());
+    }
+
+    @Test
+    public void rotationKeepsOldTokensUntilTheirKeyIsRemoved() throws Exception {
+        Path file = dir.resolve("jwt-keys.properties");
+        writeKeys(file, "active=old\nkey.old=" + secret('o') + "\n", 1000);
+
+        JwtKeyRing ring = JwtKeyRing.fromFile(file);
+        JWTTokenProvider provider = new JWTTokenProvider(ring);
+        String oldToken = provider.generateToken("ana@example.com", "USER");
+
+        // Rotate: new active key, old one still verifies
+        writeKeys(file, "active=new\nkey.new=" + secret('n') + "\nkey.old=" + secret('o') + "\n", 2000);
+        ring.reloadIfChanged();
+        assertEquals("new", ring.activeKid());
+        assertNotNull(provider.verify(oldToken));
+        assertNotNull(provider.verify(provider.generateToken("ana@example.com", "USER")));
+
+        // Retire the old key
+        writeKeys(file, "active=new\nkey.new=" + secret('n') + "\n", 3000);
+        ring.reloadIfChanged();
+        assertNull(provider.verify(oldToken));
+    }
+
+    @Test
+    public void signingKeyStaysPairedWithItsKidAcrossAReload() throws Exception {
+        Path file = dir.resolve("jwt-keys.properties");
+        writeKeys(file, "active=old\nkey.old=" + secret('o') + "\n", 1000);
+        JwtKeyRing ring = JwtKeyRing.fromFile(file);
+
+        JwtKeyRing.SigningKey before = ring.signingKey();
+
+        // A reload lands between picking the kid and signing, and retires that kid
+        writeKeys(file, "active=new\nkey.new=" + secret('n') + "\n", 2000);
+        ring.reloadIfChanged();
+
+        assertEquals("old", before.getKid());
+        assertNotNull(before.getKey(), "the key was taken with the kid, not looked up again");
+        assertNull(ring.verificationKey("old"));
+
+        JwtKeyRing.SigningKey after = ring.signingKey();
+        assertEquals("new", after.getKid());
+        assertEquals(ring.verificationKey("new"), after.getKey());
+    }
+
+    @Test
+    public void brokenReloadKeepsPreviousKeys() throws Exception {
+        Path file = dir.resolve("jwt-keys.properties");
+        writeKeys(file, "active=k1\nkey.k1=" + secret('a') + "\n", 1000);
+        JwtKeyRing ring = JwtKeyRing.fromFile(file);
+
+        writeKeys(file, "active=missing\nkey.k1=" + secret('a') + "\n", 2000);
+        ring.reloadIfChanged();
+
+        assertEquals("k1", ring.activeKid());
+    }
+}
@@ -0,0 +1,50 @@
+package com.yourapp.Security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+public class PasswordSecurityTest {
+
+    @Test
+    public void verifiesCurrentFormat() {
+        String hash = PasswordSecurity.hashPassword("secret123");
+
+        assertTrue(hash.startsWith("$v2$"));
+        assertTrue(PasswordSecurity.verifyPassword("secret123", hash));
+        assertFalse(PasswordSecurity.verifyPassword("wrong", hash));
+        assertFalse(PasswordSecurity.needsRehash(hash));
+    }
+
+    @Test
+    public void verifiesLegacyFormatAndFlagsItForRehash() throws Exception {
+        byte[] salt = new byte[16];
+        for (int i = 0; i < salt.length; i++) {
+            salt[i] = (byte) i;
+        }
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        md.update(salt);
+        byte[] hash = md.digest("secret123".getBytes(StandardCharsets.UTF_8));
+        byte[] saltAndHash = new byte[salt.length + hash.length];
+        System.arraycopy(salt, 0, saltAndHash, 0, salt.length);
+        System.arraycopy(hash, 0, saltAndHash, salt.length, hash.length);
+        String legacy = Base64.getEncoder().encodeToString(saltAndHash);
+
+        assertTrue(PasswordSecurity.verifyPassword("secret123", legacy));
+        assertFalse(PasswordSecurity.verifyPassword("wrong", legacy));
+        assertTrue(PasswordSecurity.needsRehash(legacy));
+    }
+
+    @Test
+    public void flagsDifferentCostForRehash() {
+        String hash = PasswordSecurity.hashPassword("secret123", 1000);
+
+        assertTrue(PasswordSecurity.verifyPassword("secret123", hash));
+        assertTrue(PasswordSecurity.needsRehash(hash));
+    }
+}
@@ -0,0 +1,96 @@
+package com.yourapp.TimeSlots;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+public class SlotIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 6);
+
+    private static Slot slot(int id, int dayOffset, int hour) {
+        return new Slot(id, DAY.plusDays(dayOffset), LocalTime.of(hour, 0), LocalTime.of(hour + 1, 0), false, null);
+    }
+
+    private static List<Integer> ids(List<Slot> slots) {
+        return slots.stream().map(Slot::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void servesFreeSlotsInDateAndStartOrder() {
+        SlotIndex index = new SlotIndex();
+        index.replace(Arrays.asList(slot(1, 1, 18), slot(2, 0, 17), slot(3, 1, 9), slot(4, 3, 10)), DAY, DAY.plusDays(30));
+
+        assertEquals(Arrays.asList(2, 3, 1), ids(index.free(DAY, DAY.plusDays(2))));
+        assertNull(index.free(DAY, DAY.plusDays(31)), "beyond the horizon goes to the DB");
+    }
+
+    @Test
+    public void emptyWhenRangeEndsBeforeItStarts() {
+        SlotIndex index = new SlotIndex();
+        index.replace(Arrays.asList(slot(1, 0, 9), slot(2, 1, 9)), DAY, DAY.plusDays(30));
+
+        // /free?days=-1 asks for today .. yesterday
+        assertEquals(Collections.emptyList(), index.free(DAY.plusDays(1), DAY));
+        assertEquals(0, index.calendar(DAY.plusDays(1), DAY).toMap(false).get("total"));
+    }
+
+    @Test
+    public void appliesWriteThroughChanges() {
+        SlotIndex index = new SlotIndex();
+        index.replace(Arrays.asList(slot(1, 0, 9), slot(2, 0, 10)), DAY, DAY.plusDays(30));
+
+        index.onSlotChange(SlotChange.booked(1, 42));
+        index.onSlotChange(SlotChange.created(slot(3, 0, 8)));
+        index.onSlotChange(SlotChange.created(slot(4, 60, 8)));
+        assertEquals(Arrays.asList(3, 2), ids(index.free(DAY, DAY)));
+
+        index.onSlotChange(SlotChange.freed(1));
+        index.onSlotChange(SlotChange.deleted(2));
+        assertEquals(Arrays.asList(3, 1), ids(index.free(DAY, DAY)));
+    }
+
+    @Test
+    public void reportsDriftOnReplace() {
+        SlotIndex index = new SlotIndex();
+        index.replace(Arrays.asList(slot(1, 0, 9), slot(2, 0, 10)), DAY, DAY.plusDays(30));
+
+        // 1 booked elsewhere, 2 deleted elsewhere
+        int drift = index.replace(Collections.singletonList(slot(1, 0, 9).booked(7)), DAY, DAY.plusDays(30));
+
+        assertEquals(2, drift);
+        assertEquals(Collections.emptyList(), index.free(DAY, DAY));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void countsSlotsPerDayAndHour() {
+        SlotIndex index = new SlotIndex();
+        index.replace(Arrays.asList(slot(1, 0, 9), slot(2, 0, 10).booked(7), slot(3, 0, 10), slot(4, 2, 9)), DAY, DAY.plusDays(30));
+        index.onSlotChange(SlotChange.booked(4, 8));
+
+        Map<String, Object> calendar = index.calendar(DAY, DAY.plusDays(6)).toMap(true);
+        assertEquals(4, calendar.get("total"));
+        assertEquals(2, calendar.get("booked"));
+        assertEquals(new BigDecimal("0.500"), calendar.get("utilization"));
+
+        List<Map<String, Object>> days = (List<Map<String, Object>>) calendar.get("days");
+        assertEquals(2, days.size(), "days without slots are left out");
+        List<Map<String, Object>> hours = (List<Map<String, Object>>) days.get(0).get("hours");
+        assertEquals(10, hours.get(1).get("hour"));
+        assertEquals(2, hours.get(1).get("total"));
+        assertEquals(1, hours.get(1).get("free"));
+
+        assertNull(index.calendar(DAY, DAY.plusDays(31)), "beyond the horizon goes to the DB");
+    }
+}
@@ -0,0 +1,99 @@
+package com.yourapp.TimeSlots;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.javalin.Javalin;
+
+public class SlotStreamTest {
+
+    private static final int EVENTS = 40000;
+
+    private Javalin app;
+    private SlotStream stream;
+
+    @BeforeEach
+    public void setUp() {
+        // One sender, so a client stuck in a write would starve everyone else without the timeout
+        stream = new SlotStream(new SlotIndex(), 1, EVENTS + 10, 200);
+        app = Javalin.create(config -> config.showJavalinBanner = false);
+        app.sse("/events", stream);
+        app.start(0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    @Test
+    public void clientThatNeverReadsDoesNotHoldUpTheOthers() throws Exception {
+        // Connects and never reads: its socket buffers fill and the server's writes block
+        Socket stuck = new Socket();
+        stuck.setReceiveBufferSize(1024);
+        stuck.connect(new InetSocketAddress("localhost", app.port()));
+        OutputStream request = stuck.getOutputStream();
+        request.write("GET /events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+        request.flush();
+
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        CountDownLatch all = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            try {
+                HttpURLConnection conn = (HttpURLConnection) new URL("http://localhost:" + app.port() + "/events").openConnection();
+                conn.setRequestProperty("Accept", "text/event-stream");
+                BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.equals("event: ready")) {
+                        ready.countDown();
+                    } else if (line.equals("event: slot-created") && received.incrementAndGet() == EVENTS) {
+                        all.countDown();
+                        return;
+                    }
+                }
+            } catch (Exception e) {
+                // the assertion below reports what arrived
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+
+        // Both registered before anything is published
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((Integer) stream.stats().get("clients") < 2) {
+            assertTrue(System.currentTimeMillis() < deadline, "clients did not connect");
+            Thread.sleep(10);
+        }
+
+        Slot slot = new Slot(1, LocalDate.of(2030, 1, 1), LocalTime.of(10, 0), LocalTime.of(11, 0), false, null, BigDecimal.TEN);
+        for (int i = 0; i < EVENTS; i++) {
+            stream.onSlotChange(SlotChange.created(slot));
+        }
+
+        assertTrue(all.await(20, TimeUnit.SECONDS), "healthy client got " + received.get() + " of " + EVENTS);
+        assertEquals(1L, stream.stats().get("evicted"));
+        stuck.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.yourapp.TimeSlots;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class SlotTemplateTest {
+
+    @Test
+    public void expandsWeekdaysIntoSlotsSkippingExcludedDates() {
+        List<Slot> slots = new SlotTemplate(
+                LocalDate.of(2030, 9, 2), // Monday
+                LocalDate.of(2030, 9, 15),
+                EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY),
+                LocalTime.of(16, 0), LocalTime.of(19, 30), 60,
+                Collections.singleton(LocalDate.of(2030, 9, 11)),
+                new BigDecimal("20.00")).expand();
+
+        // 3 days (2nd, 4th, 9th) x 3 full hours (16, 17, 18); 19:00-20:00 doesn't fit
+        assertEquals(9, slots.size());
+        assertEquals(LocalDate.of(2030, 9, 2), slots.get(0).getDate());
+        assertEquals(LocalTime.of(16, 0), slots.get(0).getStartTime());
+        assertEquals(LocalTime.of(19, 0), slots.get(8).getEndTime());
+        assertEquals(LocalDate.of(2030, 9, 9), slots.get(8).getDate());
+        assertEquals(new BigDecimal("20.00"), slots.get(0).getPrice());
+    }
+
+    @Test
+    public void parsesDayNamesAndNumbers() {
+        assertEquals(DayOfWeek.MONDAY, SlotTemplate.parseDay("1"));
+        assertEquals(DayOfWeek.SATURDAY, SlotTemplate.parseDay("sat"));
+        assertThrows(IllegalArgumentException.class, () -> SlotTemplate.parseDay("xyz"));
+    }
+
+    @Test
+    public void rejectsInvalidTemplates() {
+        Set<DayOfWeek> monday = EnumSet.of(DayOfWeek.MONDAY);
+        Set<LocalDate> none = Collections.emptySet();
+
+        assertThrows(IllegalArgumentException.class, () -> new SlotTemplate(LocalDate.of(2030, 9, 10),
+                LocalDate.of(2030, 9, 1), monday, LocalTime.of(16, 0), LocalTime.of(20, 0), 60, none, null));
+        assertThrows(IllegalArgumentException.class, () -> new SlotTemplate(LocalDate.of(2030, 9, 10),
+                LocalDate.of(2030, 9, 20), monday, LocalTime.of(16, 0), LocalTime.of(16, 30), 60, none, null));
+    }
+}
@@ -0,0 +1,120 @@
+package com.yourapp.Transactions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Many admins posting to the same user at once: every movement must end up in the
+ * balance. Runs against H2 in MySQL mode, which locks the row for an UPDATE like InnoDB.
+ */
+public class LedgerConcurrencyTest {
+
+    private static final String URL = "jdbc:h2:mem:ledger;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    private static final int THREADS = 8;
+    private static final int POSTS_PER_THREAD = 200;
+
+    private Connection keepAlive;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        keepAlive = DriverManager.getConnection(URL);
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("CREATE TABLE users (id int PRIMARY KEY, balance decimal(12,2) NOT NULL DEFAULT 0)");
+            stmt.execute("CREATE TABLE transactions (id int AUTO_INCREMENT PRIMARY KEY, user_id int NOT NULL, "
+                    + "amount decimal(12,2) NOT NULL, transaction_type varchar(255) NOT NULL, description varchar(255))");
+            stmt.execute("INSERT INTO users (id, balance) VALUES (1, 100.00)");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        keepAlive.close();
+    }
+
+    @Test
+    public void concurrentPostsAreNeverLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try (Connection conn = DriverManager.getConnection(URL)) {
+                    for (int i = 0; i < POSTS_PER_THREAD; i++) {
+                        conn.setAutoCommit(false);
+                        boolean add = i % 2 == 0;
+                        Ledger.post(conn, 1, add ? Ledger.ADD : Ledger.SUBTRACT,
+                                new BigDecimal(add ? "1.10" : "0.35"), "stress " + i);
+                        conn.commit();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+
+        // 100 + THREADS * (POSTS/2 * 1.10 - POSTS/2 * 0.35), exact in decimal
+        BigDecimal perThread = new BigDecimal("0.75").multiply(BigDecimal.valueOf(POSTS_PER_THREAD / 2));
+        BigDecimal expected = new BigDecimal("100.00").add(perThread.multiply(BigDecimal.valueOf(THREADS)));
+
+        try (Statement stmt = keepAlive.createStatement()) {
+            ResultSet balance = stmt.executeQuery("SELECT balance FROM users WHERE id = 1");
+            balance.next();
+            assertEquals(0, expected.compareTo(balance.getBigDecimal(1)), "balance " + balance.getBigDecimal(1));
+
+            ResultSet rows = stmt.executeQuery("SELECT COUNT(*) FROM transactions");
+            rows.next();
+            assertEquals(THREADS * POSTS_PER_THREAD, rows.getInt(1));
+        }
+    }
+
+    @Test
+    public void unknownUserWritesNothing() throws SQLException {
+        assertFalse(Ledger.post(keepAlive, 99, Ledger.ADD, new BigDecimal("5.00"), "missing"));
+
+        ResultSet rows = keepAlive.createStatement().executeQuery("SELECT COUNT(*) FROM transactions");
+        rows.next();
+        assertEquals(0, rows.getInt(1));
+    }
+
+    @Test
+    public void nullBalanceCountsAsZero() throws SQLException {
+        // As on a schema V005 hasn't run on yet
+        try (Statement stmt = keepAlive.createStatement()) {
+            stmt.execute("ALTER TABLE users ALTER COLUMN balance SET NULL");
+            stmt.execute("INSERT INTO users (id, balance) VALUES (2, NULL)");
+        }
+
+        Ledger.post(keepAlive, 2, Ledger.SUBTRACT, new BigDecimal("5.00"), "lesson");
+
+        ResultSet balance = keepAlive.createStatement().executeQuery("SELECT balance FROM users WHERE id = 2");
+        balance.next();
+        assertEquals(0, new BigDecimal("-5.00").compareTo(balance.getBigDecimal(1)));
+    }
+}
@@ -0,0 +1,100 @@
+package com.yourapp.Transactions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.yourapp.Dto.TransactionCreateDto;
+
+public class LedgerImportTest {
+
+    @Test
+    public void csvWithHeaderQuotesAndDecimalComma() throws Exception {
+        String csv = "\uFEFFamount;type;user_id;description\n"
+                + "45,50;subtract;3;\"Članarina; listopad\"\n"
+                + "\n"
+                + "10;ADD;4;\"Povrat za \"\"kišni\"\" termin\n2. dio\"\n"
+                + "abc;ADD;4;x\n";
+
+        List<LedgerImport.Row> rows = LedgerImport.readCsv(new StringReader(csv), 100);
+
+        assertEquals(3, rows.size());
+        assertEquals(3, rows.get(0).getPosting().getUserId());
+        assertEquals("SUBTRACT", rows.get(0).getPosting().getTransactionType());
+        assertEquals(new BigDecimal("45.50"), rows.get(0).getPosting().getAmount());
+        assertEquals("Članarina; listopad", rows.get(0).getPosting().getDescription());
+        assertEquals("Povrat za \"kišni\" termin\n2. dio", rows.get(1).getPosting().getDescription());
+        assertNull(rows.get(2).getPosting());
+        assertEquals(3, rows.get(2).getNumber());
+        assertEquals("Neispravan format polja 'amount'", rows.get(2).getError());
+    }
+
+    @Test
+    public void jsonRowsAreValidatedOneByOne() throws Exception {
+        String json = "[{\"user_id\":1,\"transaction_type\":\"ADD\",\"amount\":5,\"description\":\"a\"},"
+                + "{\"user_id\":1,\"transaction_type\":\"ADD\",\"amount\":-5,\"description\":\"b\"},"
+                + "{\"user_id\":\"x\",\"transaction_type\":\"ADD\",\"amount\":5,\"description\":\"c\"}]";
+
+        List<LedgerImport.Row> rows = LedgerImport.readJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 100);
+
+        assertEquals(LedgerImport.VALID, rows.get(0).getStatus());
+        assertEquals("Iznos mora biti pozitivan", rows.get(1).getError());
+        assertEquals("Neispravan format polja 'user_id'", rows.get(2).getError());
+
+        assertThrows(IllegalArgumentException.class, () ->
+                LedgerImport.readJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 2));
+        assertThrows(IllegalArgumentException.class, () ->
+                LedgerImport.readJson(new ByteArrayInputStream("{\"user_id\":1}".getBytes(StandardCharsets.UTF_8)), 100));
+    }
+
+    @Test
+    public void postAllAppliesSummedDeltasAndChecksUsers() throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:ledger-import;MODE=MySQL")) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE users (id int PRIMARY KEY, balance decimal(12,2) NOT NULL DEFAULT 0)");
+                stmt.execute("CREATE TABLE transactions (id int AUTO_INCREMENT PRIMARY KEY, user_id int NOT NULL, "
+                        + "amount decimal(12,2) NOT NULL, transaction_type varchar(255) NOT NULL, description varchar(255))");
+                stmt.execute("INSERT INTO users (id, balance) VALUES (1, 100.00), (2, 0.00)");
+            }
+
+            String csv = "1,SUBTRACT,40,Lekcije\n2,ADD,15.25,Uplata\n1,ADD,5,Povrat\n9,ADD,1,Nepoznat\n";
+            List<LedgerImport.Row> rows = LedgerImport.readCsv(new StringReader(csv), 100);
+            LedgerImport.checkUsers(conn, rows, 1);
+            assertEquals("Korisnik nije pronađen", rows.get(3).getError());
+            assertEquals(3, LedgerImport.count(rows, LedgerImport.VALID));
+
+            Ledger.postAll(conn, rows.subList(0, 3).stream().map(LedgerImport.Row::getPosting).collect(Collectors.toList()));
+
+            try (Statement stmt = conn.createStatement()) {
+                ResultSet rs = stmt.executeQuery("SELECT id, balance FROM users ORDER BY id");
+                rs.next();
+                assertEquals(0, new BigDecimal("65.00").compareTo(rs.getBigDecimal("balance")));
+                rs.next();
+                assertEquals(0, new BigDecimal("15.25").compareTo(rs.getBigDecimal("balance")));
+
+                ResultSet count = stmt.executeQuery("SELECT COUNT(*) FROM transactions");
+                count.next();
+                assertEquals(3, count.getInt(1));
+            }
+
+            // User removed between validation and apply: the chunk must fail, not skip the row
+            assertThrows(SQLException.class, () -> Ledger.postAll(conn,
+                    Collections.singletonList(new TransactionCreateDto(9, "ADD", BigDecimal.ONE, "x"))));
+        }
+    }
+}
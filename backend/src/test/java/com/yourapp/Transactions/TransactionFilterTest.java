@@ -0,0 +1,104 @@
+package com.yourapp.Transactions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.yourapp.Dto.TransactionDto;
+
+public class TransactionFilterTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:h2:mem:ledger-pages;MODE=MySQL");
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE transactions (id int AUTO_INCREMENT PRIMARY KEY, user_id int NOT NULL, "
+                    + "amount decimal(12,2) NOT NULL, transaction_type varchar(255) NOT NULL, description varchar(255), "
+                    + "created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            // Rows 2-4 share a timestamp (e.g. everything from before the column existed)
+            stmt.execute("INSERT INTO transactions (user_id, amount, transaction_type, description, created_at) VALUES "
+                    + "(1, 10.00, 'ADD', 'a', '2026-09-01 10:00:00'), "
+                    + "(1, 20.00, 'SUBTRACT', 'b', '2026-09-15 08:00:00'), "
+                    + "(2, 30.00, 'ADD', 'c', '2026-09-15 08:00:00'), "
+                    + "(1, 40.00, 'SUBTRACT', 'd', '2026-09-15 08:00:00'), "
+                    + "(2, 50.00, 'SUBTRACT', 'e', '2026-10-02 18:30:00')");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        conn.close();
+    }
+
+    @Test
+    public void pagesWalkTheLedgerNewestFirstWithoutGapsOrRepeats() throws SQLException {
+        assertEquals(Arrays.asList(5, 4, 3, 2, 1), walk(null, null, null, null, null, null, 2));
+    }
+
+    @Test
+    public void filtersCombineWithTheCursor() throws SQLException {
+        assertEquals(Arrays.asList(4, 2, 1), walk(1, null, null, null, null, null, 1));
+        assertEquals(Arrays.asList(5, 4, 2), walk(null, "SUBTRACT", null, null, null, null, 1));
+        assertEquals(Arrays.asList(4, 3, 2), walk(null, null, new BigDecimal("20"), new BigDecimal("40"), null, null, 2));
+        // to is inclusive of the whole day
+        assertEquals(Arrays.asList(4, 3, 2), walk(null, null, null, null,
+                LocalDate.parse("2026-09-15"), LocalDate.parse("2026-09-15"), 2));
+    }
+
+    @Test
+    public void rejectsInconsistentFilters() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new TransactionFilter(null, "REFUND", null, null, null, null, null, 10));
+        assertThrows(IllegalArgumentException.class, () ->
+                new TransactionFilter(null, null, BigDecimal.TEN, BigDecimal.ONE, null, null, null, 10));
+        assertThrows(IllegalArgumentException.class, () ->
+                new TransactionFilter(null, null, null, null, null, null, "bm90LWEtY3Vyc29y", 10));
+    }
+
+    private List<Integer> walk(Integer userId, String type, BigDecimal min, BigDecimal max,
+                               LocalDate from, LocalDate to, int limit) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            TransactionFilter filter = new TransactionFilter(userId, type, min, max, from, to, cursor, limit);
+            PreparedStatement stmt = conn.prepareStatement("SELECT id, user_id, amount, transaction_type, description, created_at "
+                    + "FROM transactions " + filter.where("") + TransactionFilter.orderBy("") + "LIMIT ?");
+            filter.bind(stmt);
+            ResultSet rs = stmt.executeQuery();
+
+            // Same contract as JsonStream.writePage: limit rows, the extra one means there is more
+            TransactionDto last = null;
+            int read = 0;
+            cursor = null;
+            while (rs.next()) {
+                if (++read > limit) {
+                    cursor = TransactionFilter.encode(last);
+                    break;
+                }
+                last = TransactionDto.fromRow(rs);
+                ids.add(last.getId());
+            }
+        } while (cursor != null);
+        return ids;
+    }
+}
@@ -15,6 +15,21 @@
 /*!40101 SET @OLD_SQL_MODE=@@SQL_MODE, SQL_MODE='NO_AUTO_VALUE_ON_ZERO' */;
 /*!40111 SET @OLD_SQL_NOTES=@@SQL_NOTES, SQL_NOTES=0 */;
 
+--
+-- Table structure for table `job_checkpoints`
+--
+
+DROP TABLE IF EXISTS `job_checkpoints`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `job_checkpoints` (
+  `job_name` varchar(64) NOT NULL,
+  `last_id` int NOT NULL,
+  `updated_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`job_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `password_reset_tokens`
 --
@@ -59,8 +74,10 @@ CREATE TABLE `time_slots` (
   `end_time` time NOT NULL,
   `is_booked` tinyint(1) DEFAULT '0',
   `booked_by` int DEFAULT NULL,
+  `price` decimal(10,2) DEFAULT NULL,
   PRIMARY KEY (`id`),
-  KEY `booked_by` (`booked_by`),
+  KEY `idx_time_slots_booked_date` (`booked_by`,`date`),
+  KEY `idx_time_slots_free_date` (`is_booked`,`date`,`start_time`),
   CONSTRAINT `time_slots_ibfk_1` FOREIGN KEY (`booked_by`) REFERENCES `users` (`id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=3 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
@@ -74,6 +91,27 @@ LOCK TABLES `time_slots` WRITE;
 /*!40000 ALTER TABLE `time_slots` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `time_slots_archive`
+--
+
+DROP TABLE IF EXISTS `time_slots_archive`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `time_slots_archive` (
+  `id` int NOT NULL,
+  `date` date NOT NULL,
+  `start_time` time NOT NULL,
+  `end_time` time NOT NULL,
+  `is_booked` tinyint(1) DEFAULT '0',
+  `booked_by` int DEFAULT NULL,
+  `price` decimal(10,2) DEFAULT NULL,
+  `archived_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  KEY `idx_archive_booked_by_date` (`booked_by`,`date`,`start_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `transactions`
 --
@@ -84,11 +122,14 @@ DROP TABLE IF EXISTS `transactions`;
 CREATE TABLE `transactions` (
   `id` int NOT NULL AUTO_INCREMENT,
   `user_id` int NOT NULL,
-  `amount` double NOT NULL,
+  `amount` decimal(12,2) NOT NULL,
   `transaction_type` varchar(255) NOT NULL,
   `description` varchar(255) DEFAULT NULL,
+  `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
   PRIMARY KEY (`id`),
-  KEY `user_id` (`user_id`),
+  KEY `idx_transactions_created` (`created_at`,`id`),
+  KEY `idx_transactions_user_created` (`user_id`,`created_at`,`id`),
+  KEY `idx_transactions_type_created` (`transaction_type`,`created_at`,`id`),
   CONSTRAINT `transactions_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
@@ -116,7 +157,7 @@ CREATE TABLE `users` (
   `email` varchar(255) NOT NULL,
   `phone` varchar(50) DEFAULT NULL,
   `password` varchar(255) NOT NULL,
-  `balance` double DEFAULT '0',
+  `balance` decimal(12,2) NOT NULL DEFAULT '0.00',
   `role` enum('ADMIN','USER') NOT NULL,
   PRIMARY KEY (`id`),
   UNIQUE KEY `email` (`email`)
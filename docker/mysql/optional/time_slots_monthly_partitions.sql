@@ -0,0 +1,38 @@
+-- Optional: monthly RANGE partitioning of time_slots on `date`.
+--
+-- Not applied by docker-entrypoint-initdb.d. Run it by hand once the hot table is
+-- big enough for partition pruning to matter; the archive job (SlotArchiveJob)
+-- already keeps the table small for most installations.
+--
+-- MySQL does not allow foreign keys on partitioned tables, and every unique key
+-- must contain the partitioning column, so this:
+--   * drops the booked_by -> users foreign key (the handlers only ever write
+--     booked_by from the authenticated user's id)
+--   * widens the primary key to (id, date); id stays AUTO_INCREMENT and unique in practice
+--
+-- Add next month's partition before it starts by splitting pmax, e.g.:
+--   ALTER TABLE time_slots REORGANIZE PARTITION pmax INTO (
+--     PARTITION p2027_07 VALUES LESS THAN ('2027-08-01'),
+--     PARTITION pmax VALUES LESS THAN (MAXVALUE));
+
+ALTER TABLE `time_slots` DROP FOREIGN KEY `time_slots_ibfk_1`;
+
+ALTER TABLE `time_slots` DROP PRIMARY KEY, ADD PRIMARY KEY (`id`, `date`);
+
+ALTER TABLE `time_slots`
+  PARTITION BY RANGE COLUMNS (`date`) (
+    PARTITION pold VALUES LESS THAN ('2026-07-01'),
+    PARTITION p2026_07 VALUES LESS THAN ('2026-08-01'),
+    PARTITION p2026_08 VALUES LESS THAN ('2026-09-01'),
+    PARTITION p2026_09 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p2026_10 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p2026_11 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p2026_12 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p2027_01 VALUES LESS THAN ('2027-02-01'),
+    PARTITION p2027_02 VALUES LESS THAN ('2027-03-01'),
+    PARTITION p2027_03 VALUES LESS THAN ('2027-04-01'),
+    PARTITION p2027_04 VALUES LESS THAN ('2027-05-01'),
+    PARTITION p2027_05 VALUES LESS THAN ('2027-06-01'),
+    PARTITION p2027_06 VALUES LESS THAN ('2027-07-01'),
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+  );
@@ -7,6 +7,7 @@ export interface TimeSlot {
   end_time: string;
   is_booked: boolean;
   booked_by: number | null;
+  price?: number | null;
   booked_by_user?: {
     first_name: string;
     last_name: string;
@@ -16,9 +17,57 @@ export interface TimeSlot {
 
 const API_URL = `${import.meta.env.VITE_API_URL}/api/time-slots`;
 
-export async function getMyTimeSlots(): Promise<TimeSlot[]> {
+// Follows next_cursor until the server reports the last page
+async function fetchAllPages<T>(fetchPage: (cursor: string | null) => Promise<Page<T>>): Promise<T[]> {
+  const items: T[] = [];
+  let cursor: string | null = null;
+  do {
+    const page: Page<T> = await fetchPage(cursor);
+    items.push(...page.items);
+    cursor = page.next_cursor;
+  } while (cursor);
+  return items;
+}
+
+export interface Page<T> {
+  items: T[];
+  next_cursor: string | null;
+}
+
+export async function getMyTimeSlotsPage(
+  cursor?: string | null, limit = 100, options: { from?: string; past?: boolean } = {}
+): Promise<Page<TimeSlot>> {
   const token = localStorage.getItem('jwtToken');
-  const response = await axios.get<TimeSlot[]>(`${API_URL}/my`, {
+  const response = await axios.get<Page<TimeSlot>>(`${API_URL}/my`, {
+    params: { limit, cursor: cursor ?? undefined, from: options.from, past: options.past || undefined },
+    headers: {
+      'Authorization': `Bearer ${token}`
+    }
+  });
+  return response.data;
+}
+
+// Bookings from today on, oldest first. Bounded by how far ahead slots exist, so it is
+// fetched in full; past bookings are paged with getMyPastTimeSlotsPage instead
+export async function getMyUpcomingTimeSlots(): Promise<TimeSlot[]> {
+  const today = new Date().toISOString().split('T')[0];
+  return fetchAllPages(cursor => getMyTimeSlotsPage(cursor, 100, { from: today }));
+}
+
+// One page of bookings before today, newest first; follow next_cursor for older ones
+export async function getMyPastTimeSlotsPage(cursor?: string | null, limit = 20): Promise<Page<TimeSlot>> {
+  return getMyTimeSlotsPage(cursor, limit, { past: true });
+}
+
+export interface MyBookingSummary {
+  upcoming: number;
+  past: number;
+  total: number;
+}
+
+export async function getMyBookingSummary(): Promise<MyBookingSummary> {
+  const token = localStorage.getItem('jwtToken');
+  const response = await axios.get<MyBookingSummary>(`${API_URL}/my/summary`, {
     headers: {
       'Authorization': `Bearer ${token}`
     }
@@ -36,10 +85,10 @@ export async function getFreeTimeSlots(days = 7): Promise<TimeSlot[]> {
   return response.data;
 }
 
-export async function addTimeSlot(date: string, start_time: string, end_time: string) {
+export async function addTimeSlot(date: string, start_time: string, end_time: string, price?: number | null) {
   const token = localStorage.getItem('jwtToken');
   const response = await axios.post(API_URL, {
-    date, start_time, end_time
+    date, start_time, end_time, price
   }, {
     headers: {
       'Authorization': `Bearer ${token}`
@@ -48,6 +97,33 @@ export async function addTimeSlot(date: string, start_time: string, end_time: st
   return response.data;
 }
 
+export interface RecurringSlotTemplate {
+  from: string;
+  to: string;
+  days: string[];
+  start_time: string;
+  end_time: string;
+  slot_minutes?: number;
+  exclude_dates?: string[];
+  price?: number | null;
+}
+
+export interface BulkCreateSummary {
+  requested: number;
+  created: number;
+  skipped: number;
+}
+
+export async function addRecurringTimeSlots(template: RecurringSlotTemplate): Promise<BulkCreateSummary> {
+  const token = localStorage.getItem('jwtToken');
+  const response = await axios.post<BulkCreateSummary>(`${API_URL}/bulk`, template, {
+    headers: {
+      'Authorization': `Bearer ${token}`
+    }
+  });
+  return response.data;
+}
+
 export async function bookTimeSlot(slotId: number): Promise<void> {
   const token = localStorage.getItem('jwtToken');
   await axios.post(`${API_URL}/book/${slotId}`, {}, {
@@ -57,6 +133,22 @@ export async function bookTimeSlot(slotId: number): Promise<void> {
   });
 }
 
+export interface MultiBookingResult {
+  booked: boolean;
+  results: { slot_id: number; status: 'booked' | 'available' | 'already_booked' | 'not_found' }[];
+}
+
+// Books all slots or none. A 400 carries a MultiBookingResult saying which slots were taken or missing
+export async function bookTimeSlots(slotIds: number[]): Promise<MultiBookingResult> {
+  const token = localStorage.getItem('jwtToken');
+  const response = await axios.post<MultiBookingResult>(`${API_URL}/book`, { slot_ids: slotIds }, {
+    headers: {
+      'Authorization': `Bearer ${token}`
+    }
+  });
+  return response.data;
+}
+
 export async function deleteTimeSlot(slotId: number): Promise<void> {
   const token = localStorage.getItem('jwtToken');
   await axios.delete(`${API_URL}/${slotId}`, {
@@ -66,9 +158,45 @@ export async function deleteTimeSlot(slotId: number): Promise<void> {
   });
 }
 
-export async function getAllTimeSlots(days = 7): Promise<TimeSlot[]> {
+export async function getAllTimeSlotsPage(days = 7, cursor?: string | null, limit = 100, date?: string): Promise<Page<TimeSlot>> {
   const token = localStorage.getItem('jwtToken');
-  const response = await axios.get<TimeSlot[]>(`${API_URL}/all?days=${days}`, {
+  const response = await axios.get<Page<TimeSlot>>(`${API_URL}/all`, {
+    params: { days, limit, cursor: cursor ?? undefined, date },
+    headers: {
+      'Authorization': `Bearer ${token}`
+    }
+  });
+  return response.data;
+}
+
+// Every slot of one day, with booked-by user details (a day is small, so it is fetched in full)
+export async function getTimeSlotsForDate(date: string): Promise<TimeSlot[]> {
+  return fetchAllPages(cursor => getAllTimeSlotsPage(undefined, cursor, 100, date));
+}
+
+export interface SlotCounts {
+  total: number;
+  booked: number;
+  free: number;
+  utilization: number;
+}
+
+export interface CalendarDay extends SlotCounts {
+  date: string;
+  hours?: (SlotCounts & { hour: number })[];
+}
+
+export interface SlotCalendar extends SlotCounts {
+  from: string;
+  to: string;
+  days: CalendarDay[];
+}
+
+// Per-day free/booked counts between from and to (inclusive); days without slots are left out
+export async function getSlotCalendar(from: string, to: string, hours = false): Promise<SlotCalendar> {
+  const token = localStorage.getItem('jwtToken');
+  const response = await axios.get<SlotCalendar>(`${API_URL}/calendar`, {
+    params: { from, to, hours: hours || undefined },
     headers: {
       'Authorization': `Bearer ${token}`
     }
@@ -84,3 +212,30 @@ export async function unbookTimeSlot(slotId: number): Promise<void> {
     }
   });
 }
+
+export type SlotEventType = 'slot-created' | 'slot-booked' | 'slot-freed' | 'slot-deleted';
+
+export interface SlotEvent {
+  slot_id: number;
+  slot?: Omit<TimeSlot, 'booked_by'>;
+}
+
+// Live slot changes over SSE. onReady fires on every (re)connect, refetch then since
+// changes made while disconnected are not replayed. Returns a function that closes the stream.
+export function subscribeToSlotEvents(
+  onEvent: (type: SlotEventType, event: SlotEvent) => void,
+  onReady?: () => void
+): () => void {
+  const token = localStorage.getItem('jwtToken');
+  const source = new EventSource(`${API_URL}/events?access_token=${encodeURIComponent(token ?? '')}`);
+  const types: SlotEventType[] = ['slot-created', 'slot-booked', 'slot-freed', 'slot-deleted'];
+  types.forEach(type => {
+    source.addEventListener(type, message => {
+      onEvent(type, JSON.parse((message as MessageEvent).data) as SlotEvent);
+    });
+  });
+  if (onReady) {
+    source.addEventListener('ready', () => onReady());
+  }
+  return () => source.close();
+}
@@ -1,4 +1,5 @@
 import axios from 'axios';
+import { type Page } from './timeSlotApi';
 
 const API_URL = `${import.meta.env.VITE_API_URL}/api/transactions`;
 
@@ -10,6 +11,17 @@ export interface Transaction {
   description: string;
   created_at?: string;
   user_name?: string;
+  user_email?: string;
+}
+
+// Optional filters of the ledger endpoints; from/to are YYYY-MM-DD and inclusive
+export interface TransactionFilter {
+  user_id?: number;
+  type?: 'ADD' | 'SUBTRACT';
+  min_amount?: number;
+  max_amount?: number;
+  from?: string;
+  to?: string;
 }
 
 export async function createTransaction(transactionData: {
@@ -27,22 +39,68 @@ export async function createTransaction(transactionData: {
   });
 }
 
-export async function getAllTransactions(): Promise<Transaction[]> {
+export interface BulkImportRowResult {
+  row: number;
+  status: 'valid' | 'invalid' | 'applied' | 'failed' | 'not_applied';
+  error?: string;
+}
+
+export interface BulkImportResult {
+  rows: number;
+  applied: number;
+  invalid?: number;
+  error?: string | null;
+  results: BulkImportRowResult[];
+}
+
+// Invalid rows come back with a 400 and nothing applied; a 207 means a chunk failed part way:
+// the rows marked 'applied' are committed, resend only the 'failed' and 'not_applied' ones
+export async function importTransactions(
+  source: File | Array<{ user_id: number; transaction_type: 'ADD' | 'SUBTRACT'; amount: number; description: string }>
+): Promise<BulkImportResult> {
+  const token = localStorage.getItem('jwtToken');
+  let body: FormData | typeof source = source;
+  if (source instanceof File) {
+    body = new FormData();
+    body.append('file', source);
+  }
+  const response = await axios.post(`${API_URL}/bulk`, body, {
+    headers: {
+      'Authorization': `Bearer ${token}`
+    },
+    // 400/207 carry per-row results too, unless the whole request was rejected (plain text)
+    validateStatus: status => status === 200 || status === 207 || status === 400
+  });
+  if (typeof response.data === 'string') {
+    throw new Error(response.data);
+  }
+  return response.data as BulkImportResult;
+}
+
+// One page of the ledger, newest first; pass next_cursor back for the following page.
+// There is deliberately no fetch-everything helper: screens load more on demand.
+export async function getTransactionsPage(
+  filter: TransactionFilter = {}, cursor?: string | null, limit = 100
+): Promise<Page<Transaction>> {
   const token = localStorage.getItem('jwtToken');
-  const response = await axios.get(`${API_URL}/all`, {
+  const response = await axios.get<Page<Transaction>>(`${API_URL}/all`, {
+    params: { ...filter, limit, cursor: cursor ?? undefined },
     headers: {
       'Authorization': `Bearer ${token}`
     }
   });
-  return response.data as Transaction[];
+  return response.data;
 }
 
-export async function getUserTransactions(userId: number): Promise<Transaction[]> {
+export async function getUserTransactionsPage(
+  userId: number, filter: Omit<TransactionFilter, 'user_id'> = {}, cursor?: string | null, limit = 100
+): Promise<Page<Transaction>> {
   const token = localStorage.getItem('jwtToken');
-  const response = await axios.get(`${API_URL}/user/${userId}`, {
+  const response = await axios.get<Page<Transaction>>(`${API_URL}/user/${userId}`, {
+    params: { ...filter, limit, cursor: cursor ?? undefined },
     headers: {
       'Authorization': `Bearer ${token}`
     }
   });
-  return response.data as Transaction[];
+  return response.data;
 }
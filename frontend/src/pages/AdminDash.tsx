@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import AdminHeaderBar from '../components/AdminHeaderBar';
 import Footer from '../components/Footer';
-import { getMyTimeSlots, getAllTimeSlots, addTimeSlot, deleteTimeSlot } from '../api/timeSlotApi';
+import { getMyUpcomingTimeSlots, getTimeSlotsForDate, getSlotCalendar, addTimeSlot, deleteTimeSlot, CalendarDay } from '../api/timeSlotApi';
 
 interface TimeSlot {
   id: number;
@@ -28,7 +28,9 @@ interface DateInfo {
 
 const AdminDash: React.FC = () => {
   const [mySlots, setMySlots] = useState<TimeSlot[]>([]);
-  const [allSlots, setAllSlots] = useState<TimeSlot[]>([]);
+  // Counts per date for the overview tiles, full slots only for the selected date
+  const [calendar, setCalendar] = useState<Record<string, CalendarDay>>({});
+  const [selectedDateSlots, setSelectedDateSlots] = useState<TimeSlot[]>([]);
   const [selectedDate, setSelectedDate] = useState<string | null>(null);
   const [loading, setLoading] = useState(false);
   const [showAddSlotModal, setShowAddSlotModal] = useState(false);
@@ -71,12 +73,16 @@ const AdminDash: React.FC = () => {
   const loadSlots = async () => {
     setLoading(true);
     try {
-      const [my, all] = await Promise.all([
-        getMyTimeSlots(),
-        getAllTimeSlots(7) // Changed from getFreeTimeSlots to getAllTimeSlots
+      const [my, counts, daySlots] = await Promise.all([
+        getMyUpcomingTimeSlots(),
+        getSlotCalendar(next7Days[0].dateString, next7Days[next7Days.length - 1].dateString),
+        selectedDate ? getTimeSlotsForDate(selectedDate) : Promise.resolve([])
       ]);
       setMySlots(my);
-      setAllSlots(all);
+      const byDate: Record<string, CalendarDay> = {};
+      counts.days.forEach(day => { byDate[day.date] = day; });
+      setCalendar(byDate);
+      setSelectedDateSlots(daySlots);
     } catch (error) {
       console.error('Error loading slots:', error);
     } finally {
@@ -84,8 +90,16 @@ const AdminDash: React.FC = () => {
     }
   };
 
-  const handleDateClick = (dateString: string) => {
+  const handleDateClick = async (dateString: string) => {
     setSelectedDate(dateString);
+    setLoading(true);
+    try {
+      setSelectedDateSlots(await getTimeSlotsForDate(dateString));
+    } catch (error) {
+      console.error('Error loading slots:', error);
+    } finally {
+      setLoading(false);
+    }
   };
 
   const handleDeleteTimeSlot = async (slotId: number) => {
@@ -138,7 +152,7 @@ const AdminDash: React.FC = () => {
   };
 
   const getSlotsForDate = (dateString: string): TimeSlot[] => {
-    return allSlots.filter(slot => slot.date === dateString);
+    return selectedDateSlots.filter(slot => slot.date === dateString);
   };
 
   const getMySlotCount = (dateString: string): number => {
@@ -146,7 +160,11 @@ const AdminDash: React.FC = () => {
   };
 
   const getTotalSlotsForDate = (dateString: string): number => {
-    return getSlotsForDate(dateString).length;
+    return calendar[dateString]?.total ?? 0;
+  };
+
+  const getBookedSlotsForDate = (dateString: string): number => {
+    return calendar[dateString]?.booked ?? 0;
   };
 
   // Generate time options for the dropdown
@@ -254,6 +272,7 @@ const AdminDash: React.FC = () => {
             {next7Days.map((dayInfo) => {
               const mySlotCount = getMySlotCount(dayInfo.dateString);
               const totalSlots = getTotalSlotsForDate(dayInfo.dateString);
+              const bookedSlots = getBookedSlotsForDate(dayInfo.dateString);
               
               return (
                 <button
@@ -293,6 +312,11 @@ const AdminDash: React.FC = () => {
                   <div style={{ fontSize: '10px', color: '#7f8c8d', marginTop: '5px' }}>
                     Total: {totalSlots} slot{totalSlots !== 1 ? 's' : ''}
                   </div>
+                  {totalSlots > 0 && (
+                    <div style={{ fontSize: '10px', color: '#7f8c8d' }}>
+                      Booked: {bookedSlots}/{totalSlots}
+                    </div>
+                  )}
                 </button>
               );
             })}
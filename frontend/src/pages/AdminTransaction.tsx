@@ -1,9 +1,12 @@
 import React, { useState, useEffect } from 'react';
 import AdminHeaderBar from '../components/AdminHeaderBar';
 import { getAllUsers } from '../api/userApi';
-import { createTransaction, getUserTransactions } from '../api/transactionApi';
+import { createTransaction, getUserTransactionsPage } from '../api/transactionApi';
 import Footer from '../components/Footer';
 
+// Newest transactions first; older ones are fetched on demand
+const TRANSACTION_PAGE_SIZE = 50;
+
 interface User {
   id: number;
   first_name: string;
@@ -36,6 +39,8 @@ const AdminTransaction: React.FC = () => {
   const [loading, setLoading] = useState(true);
   const [userTransactions, setUserTransactions] = useState<Transaction[]>([]);
   const [loadingTransactions, setLoadingTransactions] = useState(false);
+  const [transactionsCursor, setTransactionsCursor] = useState<string | null>(null);
+  const [loadingMoreTransactions, setLoadingMoreTransactions] = useState(false);
 
   useEffect(() => {
     loadUsers();
@@ -61,16 +66,32 @@ const AdminTransaction: React.FC = () => {
   const loadUserTransactions = async (userId: number) => {
     setLoadingTransactions(true);
     try {
-      const transactions = await getUserTransactions(userId);
-      setUserTransactions(transactions);
+      const page = await getUserTransactionsPage(userId, {}, null, TRANSACTION_PAGE_SIZE);
+      setUserTransactions(page.items);
+      setTransactionsCursor(page.next_cursor);
     } catch (error) {
       console.error('Error loading user transactions:', error);
       setUserTransactions([]);
+      setTransactionsCursor(null);
     } finally {
       setLoadingTransactions(false);
     }
   };
 
+  const loadMoreTransactions = async () => {
+    if (!selectedUserId || !transactionsCursor) return;
+    setLoadingMoreTransactions(true);
+    try {
+      const page = await getUserTransactionsPage(parseInt(selectedUserId), {}, transactionsCursor, TRANSACTION_PAGE_SIZE);
+      setUserTransactions(prev => [...prev, ...page.items]);
+      setTransactionsCursor(page.next_cursor);
+    } catch (error) {
+      console.error('Error loading more transactions:', error);
+    } finally {
+      setLoadingMoreTransactions(false);
+    }
+  };
+
   const handleInputChange = (e: React.ChangeEvent<HTMLInputElement | HTMLSelectElement | HTMLTextAreaElement>) => {
     const { name, value } = e.target;
     
@@ -81,6 +102,7 @@ const AdminTransaction: React.FC = () => {
         loadUserTransactions(parseInt(value));
       } else {
         setUserTransactions([]);
+        setTransactionsCursor(null);
       }
     } else if (name === 'transactionType') {
       setTransactionType(value as 'ADD' | 'SUBTRACT');
@@ -508,7 +530,11 @@ const AdminTransaction: React.FC = () => {
             ) : userTransactions.length > 0 ? (
               <div>
                 <div style={{ marginBottom: '15px', padding: '10px', backgroundColor: '#f8f9fa', borderRadius: '5px' }}>
-                  <strong>Total Transactions: {userTransactions.length}</strong>
+                  <strong>
+                    {transactionsCursor
+                      ? `Showing the latest ${userTransactions.length} transactions`
+                      : `Total Transactions: ${userTransactions.length}`}
+                  </strong>
                 </div>
                 
                 <div style={{ maxHeight: '300px', overflowY: 'auto', border: '1px solid #dee2e6', borderRadius: '5px' }}>
@@ -601,6 +627,28 @@ const AdminTransaction: React.FC = () => {
                     </tbody>
                   </table>
                 </div>
+
+                {transactionsCursor && (
+                  <div style={{ textAlign: 'center', marginTop: '15px' }}>
+                    <button
+                      type="button"
+                      onClick={loadMoreTransactions}
+                      disabled={loadingMoreTransactions}
+                      style={{
+                        padding: '10px 20px',
+                        backgroundColor: loadingMoreTransactions ? '#bdc3c7' : '#3498db',
+                        color: '#fff',
+                        border: 'none',
+                        borderRadius: '5px',
+                        cursor: loadingMoreTransactions ? 'not-allowed' : 'pointer',
+                        fontWeight: 'bold',
+                        fontSize: '14px'
+                      }}
+                    >
+                      {loadingMoreTransactions ? '⏳ Loading...' : '⬇️ Load older transactions'}
+                    </button>
+                  </div>
+                )}
               </div>
             ) : (
               <div style={{ 
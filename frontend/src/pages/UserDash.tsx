@@ -1,6 +1,6 @@
 import React, { useEffect, useState } from 'react';
 import UserHeaderBar from '../components/UserHeaderBar';
-import { getFreeTimeSlots, getMyTimeSlots, bookTimeSlot, unbookTimeSlot } from '../api/timeSlotApi';
+import { getFreeTimeSlots, getMyUpcomingTimeSlots, getMyBookingSummary, bookTimeSlot, unbookTimeSlot, subscribeToSlotEvents } from '../api/timeSlotApi';
 import Footer from '../components/Footer';
 
 interface TimeSlot {
@@ -23,7 +23,9 @@ interface DateInfo {
 
 const UserDash: React.FC = () => {
   const [freeSlots, setFreeSlots] = useState<TimeSlot[]>([]);
+  // Upcoming bookings only; the history is paged on the profile page
   const [myBookings, setMyBookings] = useState<TimeSlot[]>([]);
+  const [totalBookings, setTotalBookings] = useState(0);
   const [selectedDate, setSelectedDate] = useState<string | null>(null);
   const [loading, setLoading] = useState(false);
   const [bookingSlot, setBookingSlot] = useState<number | null>(null);
@@ -56,15 +58,42 @@ const UserDash: React.FC = () => {
     loadSlots();
   }, []);
 
+  // Pushed slot changes keep the free list current without polling
+  useEffect(() => {
+    let connectedBefore = false;
+    return subscribeToSlotEvents((type, event) => {
+      setFreeSlots(prev => {
+        const others = prev.filter(slot => slot.id !== event.slot_id);
+        if ((type === 'slot-created' || type === 'slot-freed') && event.slot) {
+          const lastDay = next7Days[next7Days.length - 1].dateString;
+          if (event.slot.date > lastDay) {
+            return others;
+          }
+          return [...others, { ...event.slot, booked_by: null }].sort((a, b) =>
+            a.date === b.date ? a.start_time.localeCompare(b.start_time) : a.date.localeCompare(b.date));
+        }
+        return others;
+      });
+    }, () => {
+      // Refetch after a reconnect, changes while disconnected are not replayed
+      if (connectedBefore) {
+        loadSlots();
+      }
+      connectedBefore = true;
+    });
+  }, []);
+
   const loadSlots = async () => {
     setLoading(true);
     try {
-      const [free, my] = await Promise.all([
+      const [free, my, summary] = await Promise.all([
         getFreeTimeSlots(7),
-        getMyTimeSlots()
+        getMyUpcomingTimeSlots(),
+        getMyBookingSummary()
       ]);
       setFreeSlots(free);
       setMyBookings(my);
+      setTotalBookings(summary.total);
     } catch (error) {
       console.error('Error loading slots:', error);
     } finally {
@@ -475,7 +504,7 @@ const UserDash: React.FC = () => {
             boxShadow: '0 2px 4px rgba(52, 152, 219, 0.3)'
           }}>
             <div style={{ fontSize: '24px', fontWeight: 'bold', marginBottom: '5px' }}>
-              {myBookings.length}
+              {totalBookings}
             </div>
             <div style={{ fontSize: '14px', opacity: 0.9 }}>Total Bookings</div>
           </div>
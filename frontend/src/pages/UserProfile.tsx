@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import UserHeaderBar from '../components/UserHeaderBar';
 import { getUserProfile, updateUserProfile } from '../api/userApi';
-import { getMyTimeSlots, unbookTimeSlot } from '../api/timeSlotApi';
+import { getMyUpcomingTimeSlots, getMyPastTimeSlotsPage, getMyBookingSummary, unbookTimeSlot, type MyBookingSummary } from '../api/timeSlotApi';
 import Footer from '../components/Footer';
 
 interface UserProfile {
@@ -26,7 +26,12 @@ interface TimeSlot {
 
 const UserProfile: React.FC = () => {
   const [profile, setProfile] = useState<UserProfile | null>(null);
-  const [myBookings, setMyBookings] = useState<TimeSlot[]>([]);
+  // Upcoming bookings in full, the history one page at a time (newest first)
+  const [upcomingBookings, setUpcomingBookings] = useState<TimeSlot[]>([]);
+  const [pastBookings, setPastBookings] = useState<TimeSlot[]>([]);
+  const [pastCursor, setPastCursor] = useState<string | null>(null);
+  const [loadingMorePast, setLoadingMorePast] = useState(false);
+  const [bookingSummary, setBookingSummary] = useState<MyBookingSummary>({ upcoming: 0, past: 0, total: 0 });
   const [loading, setLoading] = useState(false);
   const [editing, setEditing] = useState(false);
   const [editForm, setEditForm] = useState({
@@ -45,12 +50,17 @@ const UserProfile: React.FC = () => {
   const loadProfileData = async () => {
     setLoading(true);
     try {
-      const [userProfile, bookings] = await Promise.all([
+      const [userProfile, upcoming, past, summary] = await Promise.all([
         getUserProfile(),
-        getMyTimeSlots()
+        getMyUpcomingTimeSlots(),
+        getMyPastTimeSlotsPage(),
+        getMyBookingSummary()
       ]);
       setProfile(userProfile);
-      setMyBookings(bookings);
+      setUpcomingBookings(upcoming);
+      setPastBookings(past.items);
+      setPastCursor(past.next_cursor);
+      setBookingSummary(summary);
       setEditForm({
         first_name: userProfile.first_name,
         last_name: userProfile.last_name,
@@ -115,14 +125,18 @@ const UserProfile: React.FC = () => {
     }
   };
 
-  const getUpcomingBookings = () => {
-    const today = new Date().toISOString().split('T')[0];
-    return myBookings.filter(booking => booking.date >= today);
-  };
-
-  const getPastBookings = () => {
-    const today = new Date().toISOString().split('T')[0];
-    return myBookings.filter(booking => booking.date < today);
+  const loadMorePastBookings = async () => {
+    if (!pastCursor) return;
+    setLoadingMorePast(true);
+    try {
+      const page = await getMyPastTimeSlotsPage(pastCursor);
+      setPastBookings(prev => [...prev, ...page.items]);
+      setPastCursor(page.next_cursor);
+    } catch (error) {
+      console.error('Error loading past bookings:', error);
+    } finally {
+      setLoadingMorePast(false);
+    }
   };
 
   if (loading) {
@@ -151,8 +165,6 @@ const UserProfile: React.FC = () => {
     );
   }
 
-  const upcomingBookings = getUpcomingBookings();
-  const pastBookings = getPastBookings();
 
   return (
     <>
@@ -405,7 +417,7 @@ const UserProfile: React.FC = () => {
             textAlign: 'center'
           }}>
             <div style={{ fontSize: '24px', fontWeight: 'bold', marginBottom: '5px' }}>
-              {myBookings.length}
+              {bookingSummary.total}
             </div>
             <div style={{ fontSize: '14px', opacity: 0.9 }}>Total Bookings</div>
           </div>
@@ -431,7 +443,7 @@ const UserProfile: React.FC = () => {
             textAlign: 'center'
           }}>
             <div style={{ fontSize: '24px', fontWeight: 'bold', marginBottom: '5px' }}>
-              {pastBookings.length}
+              {bookingSummary.past}
             </div>
             <div style={{ fontSize: '14px', opacity: 0.9 }}>Completed</div>
           </div>
@@ -453,7 +465,7 @@ const UserProfile: React.FC = () => {
           </div>
 
           <div style={{ padding: '20px' }}>
-            {myBookings.length === 0 ? (
+            {upcomingBookings.length === 0 && pastBookings.length === 0 ? (
               <div style={{ 
                 textAlign: 'center', 
                 color: '#7f8c8d', 
@@ -574,6 +586,27 @@ const UserProfile: React.FC = () => {
                         </div>
                       ))}
                     </div>
+                    {pastCursor && (
+                      <div style={{ textAlign: 'center', marginTop: '15px' }}>
+                        <button
+                          type="button"
+                          onClick={loadMorePastBookings}
+                          disabled={loadingMorePast}
+                          style={{
+                            padding: '10px 20px',
+                            backgroundColor: loadingMorePast ? '#bdc3c7' : '#95a5a6',
+                            color: '#fff',
+                            border: 'none',
+                            borderRadius: '5px',
+                            cursor: loadingMorePast ? 'not-allowed' : 'pointer',
+                            fontWeight: 'bold',
+                            fontSize: '14px'
+                          }}
+                        >
+                          {loadingMorePast ? '⏳ Loading...' : '⬇️ Show older bookings'}
+                        </button>
+                      </div>
+                    )}
                   </div>
                 )}
               </>